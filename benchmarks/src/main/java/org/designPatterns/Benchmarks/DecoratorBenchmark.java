@@ -0,0 +1,46 @@
+package org.designPatterns.Benchmarks;
+
+import org.designPatterns.Decorator.DecoratorStrategyPattern.BasePizza;
+import org.designPatterns.Decorator.DecoratorStrategyPattern.ExtraCheese;
+import org.designPatterns.Decorator.DecoratorStrategyPattern.Margherita;
+import org.designPatterns.Decorator.DecoratorStrategyPattern.MushRoom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// cost() through a chain of alternating toppings, from a single decorator to chains deep enough to defeat inlining
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecoratorBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    int depth;
+
+    BasePizza pizza;
+
+    @Setup
+    public void setUp() {
+        pizza = new Margherita();
+        for (int i = 0; i < depth; i++) {
+            pizza = (i & 1) == 0 ? new ExtraCheese(pizza) : new MushRoom(pizza);
+        }
+    }
+
+    @Benchmark
+    public int cost() {
+        return pizza.cost();
+    }
+}
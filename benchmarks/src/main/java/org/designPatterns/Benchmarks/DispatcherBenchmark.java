@@ -0,0 +1,82 @@
+package org.designPatterns.Benchmarks;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+Hall-call allocation for every ExternalDispatcher registered with the BuildingLoader, across fleet sizes.
+Each call is allocated and then delivered into the chosen cars' stop sets, so dispatchers that notify many cars pay
+for it. The cars never move, so the stop sets reach a steady state after warmup. The hall button is cleared after
+each allocation as if a car had answered it; repeatedPress measures a press on a button that is still lit.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatcherBenchmark {
+    @Param({"eta", "broadcast", "oddeven"})
+    String dispatcher;
+
+    @Param({"1", "8", "64"})
+    int fleetSize;
+
+    @Param({"100"})
+    int floors;
+
+    Building building;
+    ElevatorController[] controllers;
+    SplittableRandom random = new SplittableRandom(17);
+
+    @Setup
+    public void setUp() {
+        building = BuildingLoader.fromString("floors 0 " + (floors - 1) + "\n"
+                + "dispatcher " + dispatcher + "\n"
+                + "cars " + fleetSize + "\n");
+        controllers = building.registry.controllers();
+        SplittableRandom start = new SplittableRandom(3);
+        for (ElevatorController controller : controllers) {
+            controller.elevatorCar.currentFloor = start.nextInt(floors);
+            controller.elevatorCar.elevatorDirection = start.nextBoolean() ? Direction.UP : Direction.DOWN;
+        }
+    }
+
+    @Benchmark
+    public int allocateHallCall() {
+        int floor = random.nextInt(floors);
+        Direction direction = floor == 0 || (floor < floors - 1 && random.nextBoolean()) ? Direction.UP : Direction.DOWN;
+        building.externalDispatcher.submitExternalRequest(floor, direction);
+        int applied = 0;
+        for (ElevatorController controller : controllers) {
+            applied += controller.drainInbox();
+        }
+        building.externalDispatcher.hallCalls.answered(floor, direction);
+        return applied;
+    }
+
+    @Benchmark
+    public int repeatedPress() {
+        int floor = random.nextInt(floors);
+        Direction direction = floor == 0 || (floor < floors - 1 && random.nextBoolean()) ? Direction.UP : Direction.DOWN;
+        building.externalDispatcher.hallCalls.press(floor, direction);
+        building.externalDispatcher.submitExternalRequest(floor, direction);
+        return floor;
+    }
+}
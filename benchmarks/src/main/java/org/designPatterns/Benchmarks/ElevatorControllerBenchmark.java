@@ -0,0 +1,73 @@
+package org.designPatterns.Benchmarks;
+
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Components.InternalButtons;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+A single controller: queueing a car call through the inbox into the stop sets, and serving a full sweep of stops
+with controlElevator.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElevatorControllerBenchmark {
+    @Param({"10", "100"})
+    int floors;
+
+    @Param({"8", "32"})
+    int stopsPerSweep;
+
+    ElevatorController controller;
+    int cursor;
+
+    @Setup
+    public void setUp() {
+        FloorStopSet served = new FloorStopSet(floors);
+        for (int floor = 0; floor < floors; floor++) {
+            served.add(floor);
+        }
+        controller = new ElevatorController(new ElevatorCar(1, new InternalButtons(null, served)));
+    }
+
+    // Publish one request and apply it; the stop set is emptied once every floor has been queued
+    @Benchmark
+    public int addToQueue() {
+        if (cursor == floors) {
+            cursor = 0;
+            controller.upMinPQ.clear();
+        }
+        controller.submitInternalRequest(cursor++, Direction.UP);
+        return controller.drainInbox();
+    }
+
+    // Queue a sweep worth of stops in both directions and let the control loop serve them all
+    @Benchmark
+    public int controlElevator() {
+        int step = Math.max(1, floors / stopsPerSweep);
+        for (int i = 0; i < stopsPerSweep; i++) {
+            int floor = (i * step) % floors;
+            controller.submitInternalRequest(floor, (i & 1) == 0 ? Direction.UP : Direction.DOWN);
+        }
+        controller.controlElevator();
+        return controller.elevatorCar.currentFloor;
+    }
+}
@@ -0,0 +1,68 @@
+package org.designPatterns.Benchmarks;
+
+import org.designPatterns.Observer.ObserverDesignPattern.CarObservableImpl;
+import org.designPatterns.Observer.ObserverDesignPattern.EmailAlertObserverImpl;
+import org.designPatterns.Observer.ObserverDesignPattern.MobileAlertObserverImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+CarObservableImpl.notifySubscribers with a growing subscriber list: once with observers that do nothing but get
+called, to isolate the fan-out, and once with the demo's email / SMS observers that build a message each.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObserverBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    int subscribers;
+
+    CarObservableImpl emptyObservers;
+    CarObservableImpl alertObservers;
+    long notifications;
+
+    @Setup
+    public void setUp() {
+        Quiet.silence();
+        emptyObservers = new CarObservableImpl();
+        alertObservers = new CarObservableImpl();
+        alertObservers.stockCount = 30;
+        for (int i = 0; i < subscribers; i++) {
+            emptyObservers.add(() -> notifications++);
+            alertObservers.add((i & 1) == 0
+                    ? new EmailAlertObserverImpl("user" + i + "@example.com", alertObservers)
+                    : new MobileAlertObserverImpl("user" + i, alertObservers));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Quiet.restore();
+    }
+
+    @Benchmark
+    public long notifyFanOut() {
+        emptyObservers.notifySubscribers();
+        return notifications;
+    }
+
+    @Benchmark
+    public void notifyAlertObservers() {
+        alertObservers.notifySubscribers();
+    }
+}
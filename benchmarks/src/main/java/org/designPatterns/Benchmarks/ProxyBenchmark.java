@@ -0,0 +1,52 @@
+package org.designPatterns.Benchmarks;
+
+import org.designPatterns.Proxy.ProxyDesignPattern.Image;
+import org.designPatterns.Proxy.ProxyDesignPattern.ProxyImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// ProxyImage.display on a proxy that already loaded its image, and on a fresh proxy that has to load it first
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyBenchmark {
+    Image loaded;
+
+    @Setup
+    public void setUp() {
+        Quiet.silence();
+        loaded = new ProxyImage("loaded.jpg");
+        loaded.display();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Quiet.restore();
+    }
+
+    @Benchmark
+    public void displayLoaded() {
+        loaded.display();
+    }
+
+    @Benchmark
+    public Image displayFirstTime() {
+        Image image = new ProxyImage("fresh.jpg");
+        image.display();
+        return image;
+    }
+}
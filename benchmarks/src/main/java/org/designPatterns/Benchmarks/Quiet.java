@@ -0,0 +1,24 @@
+package org.designPatterns.Benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// The pattern demos print on every call; benchmarks swap stdout for a null stream so they measure the code, not the console
+public class Quiet {
+    private static final PrintStream NULL_OUT = new PrintStream(OutputStream.nullOutputStream());
+    private static PrintStream console;
+
+    public static synchronized void silence() {
+        if (console == null) {
+            console = System.out;
+            System.setOut(NULL_OUT);
+        }
+    }
+
+    public static synchronized void restore() {
+        if (console != null) {
+            System.setOut(console);
+            console = null;
+        }
+    }
+}
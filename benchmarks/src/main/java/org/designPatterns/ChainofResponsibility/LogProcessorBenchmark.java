@@ -0,0 +1,78 @@
+package org.designPatterns.ChainofResponsibility;
+
+import org.designPatterns.Benchmarks.Quiet;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.DebugLogProcessor;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.ErrorLogProcessor;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.InfoLogProcessor;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.LogProcessor;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.LogProcessorChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Lives in the pattern's package because the LogProcessor constructors are package-private.
+The chain is padded with pass-through processors in front of Info -> Debug -> Error, so an ERROR message walks the
+whole chain while an INFO message stops right after the padding. The compiled benchmarks send the same messages through
+a LogProcessorChain built from that chain, which looks the processor up by level.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogProcessorBenchmark {
+    @Param({"3", "10", "50"})
+    int chainDepth;
+
+    LogProcessor chain;
+    LogProcessorChain compiled;
+
+    @Setup
+    public void setUp() {
+        Quiet.silence();
+        chain = new InfoLogProcessor(new DebugLogProcessor(new ErrorLogProcessor(null)));
+        for (int i = 3; i < chainDepth; i++) {
+            chain = new LogProcessor(chain) {
+            };
+        }
+        compiled = new LogProcessorChain(chain);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Quiet.restore();
+    }
+
+    @Benchmark
+    public void logInfo() {
+        chain.log(LogProcessor.INFO, "just for info");
+    }
+
+    @Benchmark
+    public void logError() {
+        chain.log(LogProcessor.ERROR, "exception happens");
+    }
+
+    @Benchmark
+    public void compiledInfo() {
+        compiled.log(LogProcessor.INFO, "just for info");
+    }
+
+    @Benchmark
+    public void compiledError() {
+        compiled.log(LogProcessor.ERROR, "exception happens");
+    }
+}
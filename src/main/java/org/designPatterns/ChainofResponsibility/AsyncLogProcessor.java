@@ -0,0 +1,359 @@
+package org.designPatterns.ChainofResponsibility;
+
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.LogProcessor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Log processor that takes the I/O off the logging thread. It handles the levels it is given (every level if none) and
+passes the rest down the chain like any other processor, so it can sit anywhere in a chain or a LogProcessorChain.
+A handled message is published into a ring of preallocated slots: producers claim a slot with one compare-and-set on the
+tail and mark it written with a per-slot sequence number, so nobody takes a lock. One consumer thread drains the ring in
+batches, encodes each line as "LEVEL: message" into a direct ByteBuffer and writes the buffer with the FileChannel when
+it fills up or the ring runs dry.
+A message the encoder fails on is written as a marker line instead; only a failed write stops the consumer.
+Once closed, or once writing fails, the consumer seals the tail so no producer can claim a slot it will never read:
+every message is either written or counted as dropped.
+When the ring is full the policy decides:
+    BLOCK   the logging thread waits for a free slot; nothing is lost
+    DROP    the message is counted and dropped
+    SAMPLE  one in every sampleEvery messages that find the ring full waits for a slot, the rest are dropped
+*/
+public class AsyncLogProcessor extends LogProcessor implements AutoCloseable {
+
+    public enum FullPolicy { BLOCK, DROP, SAMPLE }
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    // Levels below this get a name cached as bytes; others are named as they are written
+    static final int NAMED_LEVELS = 16;
+    // Tail value once the consumer has stopped taking messages
+    static final long SEALED = Long.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final FullPolicy policy;
+    private final long[] levels;
+    private final Slot[] slots;
+    private final int mask;
+    // Next sequence to claim; producers race for it
+    private final AtomicLong tail = new AtomicLong();
+    private final Thread consumer;
+    private volatile boolean closed;
+
+    public int sampleEvery = 100;
+    private final AtomicLong fullHits = new AtomicLong();
+
+    // Messages written to the channel so far, which is also the next sequence the consumer reads; only it moves this
+    public volatile long written;
+    public final LongAdder dropped = new LongAdder();
+
+    // capacity is rounded up to a power of two
+    public AsyncLogProcessor(LogProcessor nextLoggerProcessor, FileChannel channel, int capacity, FullPolicy policy,
+                             int... levels) {
+        super(nextLoggerProcessor);
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Ring capacity must be at least 2, got " + capacity);
+        }
+        this.channel = channel;
+        this.policy = policy;
+        this.levels = levels.length == 0 ? null : mask(levels);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+        mask = size - 1;
+        consumer = new Thread(this::drain, "async-log");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    private static long[] mask(int[] levels) {
+        int max = 0;
+        for (int level : levels) {
+            if (level < 0) {
+                throw new IllegalArgumentException("Invalid log level: " + level);
+            }
+            max = Math.max(max, level);
+        }
+        long[] words = new long[(max >>> 6) + 1];
+        for (int level : levels) {
+            words[level >>> 6] |= 1L << level;
+        }
+        return words;
+    }
+
+    @Override
+    // Handles the levels it was given, or all of them
+    protected boolean handles(int logLevel) {
+        if (levels == null) {
+            return true;
+        }
+        return logLevel >= 0 && (logLevel >>> 6) < levels.length && (levels[logLevel >>> 6] & (1L << logLevel)) != 0;
+    }
+
+    @Override
+    // The levels are fixed at construction
+    protected boolean fixedLevels() {
+        return true;
+    }
+
+    @Override
+    // Publishes the message for the consumer thread to write
+    protected void write(int logLevel, String message) {
+        if (closed || !publish(logLevel, message)) {
+            dropped.increment();
+        }
+    }
+
+    private boolean publish(int logLevel, String message) {
+        int spins = 0;
+        while (true) {
+            long sequence = tail.get();
+            if (sequence == SEALED) {
+                return false;
+            }
+            Slot slot = slots[(int) sequence & mask];
+            long ready = slot.sequence;
+            if (ready == sequence) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    slot.level = logLevel;
+                    slot.message = message;
+                    // Hands the slot to the consumer
+                    slot.sequence = sequence + 1;
+                    return true;
+                }
+            } else if (ready < sequence) {
+                // The slot still holds a message from one lap ago: the ring is full
+                if (spins == 0 && !waitForSpace()) {
+                    return false;
+                }
+                if (closed) {
+                    return false;
+                }
+                backOff(++spins);
+            }
+        }
+    }
+
+    // Decides once per message whether a full ring is waited on
+    private boolean waitForSpace() {
+        return switch (policy) {
+            case BLOCK -> true;
+            case DROP -> false;
+            case SAMPLE -> fullHits.getAndIncrement() % sampleEvery == 0;
+        };
+    }
+
+    private static void backOff(int spins) {
+        if (spins < 64) {
+            Thread.onSpinWait();
+        } else if (spins < 128) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    // Consumer loop: takes every published message in order, encodes it and writes full buffers out
+    private void drain() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        Encoder encoder = new Encoder();
+        long next = written;
+        int idle = 0;
+        try {
+            while (true) {
+                Slot slot = slots[(int) next & mask];
+                if (slot.sequence == next + 1) {
+                    // Printed as "null", like the processors that print to the console
+                    String message = slot.message != null ? slot.message : "null";
+                    int start = buffer.position();
+                    try {
+                        if (!encoder.encode(buffer, slot.level, message)) {
+                            writeOut(buffer);
+                            written = next;
+                            start = 0;
+                            if (!encoder.encode(buffer, slot.level, message)) {
+                                // A line longer than the whole buffer is cut short rather than lost
+                                encoder.encodeTruncated(buffer, slot.level, message);
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        // Only this line is lost: it is replaced by a marker and the consumer carries on draining
+                        buffer.position(start);
+                        if (!encoder.encodeFailed(buffer, slot.level)) {
+                            writeOut(buffer);
+                            written = next;
+                            encoder.encodeFailed(buffer, slot.level);
+                        }
+                    }
+                    slot.message = null;
+                    // Frees the slot for the producer one lap ahead
+                    slot.sequence = next + slots.length;
+                    next++;
+                    idle = 0;
+                    continue;
+                }
+                // Ring is empty: write what the batch collected, then report progress
+                if (buffer.position() > 0) {
+                    writeOut(buffer);
+                }
+                written = next;
+                // Only stops once no producer can claim a slot behind the last one read
+                if (closed && tail.compareAndSet(next, SEALED)) {
+                    return;
+                }
+                if (++idle < 64) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Nothing more gets written: what the batch took and whatever is still on the ring are dropped
+            closed = true;
+            dropped.add(seal() - written);
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+    }
+
+    // Stops producers from claiming slots and returns the tail they reached
+    private long seal() {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence == SEALED || tail.compareAndSet(sequence, SEALED)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void writeOut(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Waits until every message published before the call has been written to the channel
+    public void flush() {
+        long target = tail.get();
+        if (target == SEALED) {
+            return;
+        }
+        while (written < target && consumer.isAlive()) {
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    // Writes out everything still on the ring and stops the consumer; later messages are dropped. The channel stays open.
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One ring entry; sequence says whose turn it is: equal to the lap's sequence when free, one more once written
+    static final class Slot {
+        volatile long sequence;
+        int level;
+        String message;
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    // Turns lines into UTF-8 bytes; ASCII, the usual case, is copied char by char without allocating
+    static final class Encoder {
+        private static final byte[] UNENCODABLE = ": <message could not be encoded>\n".getBytes(StandardCharsets.UTF_8);
+        private final byte[][] names = new byte[NAMED_LEVELS][];
+        private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder();
+
+        boolean encode(ByteBuffer buffer, int level, String message) {
+            byte[] name = name(level);
+            int length = message.length();
+            if (buffer.remaining() < name.length + 2 + length + 1) {
+                return false;
+            }
+            int start = buffer.position();
+            buffer.put(name).put((byte) ':').put((byte) ' ');
+            for (int i = 0; i < length; i++) {
+                char c = message.charAt(i);
+                if (c >= 0x80) {
+                    buffer.position(start);
+                    return encodeUnicode(buffer, name, message);
+                }
+                buffer.put((byte) c);
+            }
+            buffer.put((byte) '\n');
+            return true;
+        }
+
+        private boolean encodeUnicode(ByteBuffer buffer, byte[] name, String message) {
+            int start = buffer.position();
+            buffer.put(name).put((byte) ':').put((byte) ' ');
+            utf8.reset();
+            if (utf8.encode(CharBuffer.wrap(message), buffer, true).isOverflow() || !buffer.hasRemaining()) {
+                buffer.position(start);
+                return false;
+            }
+            buffer.put((byte) '\n');
+            return true;
+        }
+
+        void encodeTruncated(ByteBuffer buffer, int level, String message) {
+            byte[] name = name(level);
+            buffer.put(name).put((byte) ':').put((byte) ' ');
+            utf8.reset();
+            ByteBuffer line = buffer.slice(buffer.position(), buffer.remaining() - 1);
+            utf8.encode(CharBuffer.wrap(message), line, true);
+            buffer.position(buffer.position() + line.position()).put((byte) '\n');
+        }
+
+        // Stands in for a line that could not be encoded, so the log still has one line per message
+        boolean encodeFailed(ByteBuffer buffer, int level) {
+            byte[] name = name(level);
+            if (buffer.remaining() < name.length + UNENCODABLE.length) {
+                return false;
+            }
+            buffer.put(name).put(UNENCODABLE);
+            return true;
+        }
+
+        private byte[] name(int level) {
+            if (level < 0 || level >= NAMED_LEVELS) {
+                return levelName(level).getBytes(StandardCharsets.UTF_8);
+            }
+            byte[] name = names[level];
+            if (name == null) {
+                name = levelName(level).getBytes(StandardCharsets.UTF_8);
+                names[level] = name;
+            }
+            return name;
+        }
+
+        static String levelName(int level) {
+            if (level == LogProcessor.INFO) {
+                return "INFO";
+            } else if (level == LogProcessor.DEBUG) {
+                return "DEBUG";
+            } else if (level == LogProcessor.ERROR) {
+                return "ERROR";
+            }
+            return "LEVEL " + level;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.designPatterns.ChainofResponsibility;
+
+import org.designPatterns.ChainofResponsibility.AsyncLogProcessor.FullPolicy;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.DebugLogProcessor;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.ErrorLogProcessor;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.InfoLogProcessor;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.LogProcessor;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Logging throughput with many threads logging at once: the Info -> Debug -> Error chain printing with System.out, as it
+does today, against the same chain with an AsyncLogProcessor in front, once per full-ring policy. Everything goes to
+temporary files so the numbers are not the terminal's; stdout is pointed at a file the way a service's would be.
+Each thread logs a mix of INFO, DEBUG and ERROR for the given time. Logged counts every call that returned, written the
+lines that reached the file.
+Usage: AsyncLogThroughput [threads] [seconds] [ring capacity]
+*/
+public class AsyncLogThroughput {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 8192;
+
+        PrintStream console = System.out;
+        console.printf("%d threads, %.0f s each, ring of %d%n", threads, seconds, capacity);
+
+        Path printed = Files.createTempFile("sync-log", ".txt");
+        try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(printed.toFile()), 8192), true)) {
+            System.setOut(out);
+            LogProcessor chain = new InfoLogProcessor(new DebugLogProcessor(new ErrorLogProcessor(null)));
+            long logged = run(chain, threads, seconds);
+            System.out.flush();
+            report(console, "println", logged, seconds, Files.lines(printed).count(), 0);
+        } finally {
+            System.setOut(console);
+            Files.delete(printed);
+        }
+
+        for (FullPolicy policy : FullPolicy.values()) {
+            Path file = Files.createTempFile("async-log", ".txt");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                AsyncLogProcessor async = new AsyncLogProcessor(
+                        new InfoLogProcessor(new DebugLogProcessor(new ErrorLogProcessor(null))), channel, capacity, policy);
+                long logged = run(async, threads, seconds);
+                async.close();
+                report(console, "async " + policy.name().toLowerCase(), logged, seconds, async.written, async.dropped.sum());
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    static long run(LogProcessor chain, int threads, double seconds) throws InterruptedException {
+        LongAdder logged = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[] deadline = new long[1];
+        for (int i = 0; i < threads; i++) {
+            String prefix = "request " + i + " handled, step ";
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                while ((count & 255) != 0 || System.nanoTime() < deadline[0]) {
+                    int level = count % 10 == 0 ? LogProcessor.ERROR : count % 3 == 0 ? LogProcessor.DEBUG : LogProcessor.INFO;
+                    chain.log(level, prefix + count);
+                    count++;
+                }
+                logged.add(count);
+            });
+            workers[i].start();
+        }
+        deadline[0] = System.nanoTime() + (long) (seconds * 1e9);
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return logged.sum();
+    }
+
+    static void report(PrintStream console, String name, long logged, double seconds, long written, long dropped) {
+        console.printf("%-13s %,12.0f logged/s  %,12d written  %,12d dropped%n", name, logged / seconds, written, dropped);
+    }
+}
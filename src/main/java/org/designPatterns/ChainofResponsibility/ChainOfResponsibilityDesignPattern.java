@@ -1,5 +1,8 @@
 package org.designPatterns.ChainofResponsibility;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ChainOfResponsibilityDesignPattern {
 
     /*
@@ -12,6 +15,10 @@ public class ChainOfResponsibilityDesignPattern {
     - The `LogProcessor` abstract class represents the base log processor with common functionality.
     - Concrete processors (`InfoLogProcessor`, `ErrorLogProcessor`, `DebugLogProcessor`) handle specific log levels (INFO, ERROR, DEBUG).
     - The `log()` method passes the request along the chain of processors if the log level doesn't match the current processor's level.
+    - `LogProcessorChain` compiles a chain into a table indexed by log level, so a message goes straight to the processor
+      that handles it instead of walking every processor in front of it.
+    - `AsyncLogProcessor` can take any place in the chain and hands its messages to a background writer instead of
+      printing them on the logging thread.
     */
 
     // Abstract LogProcessor class that represents the base handler in the chain of responsibility
@@ -28,13 +35,32 @@ public class ChainOfResponsibilityDesignPattern {
             this.nextLoggerProcessor = loggerProcessor;
         }
 
-        // Handles logging by passing the log message to the next processor if necessary
+        // Handles logging by processing the message here if this processor handles its level, otherwise passing it on
         public void log(int logLevel, String message) {
-            // If there's a next processor, pass the log request to it
-            if (nextLoggerProcessor != null) {
+            if (handles(logLevel)) {
+                write(logLevel, message);
+            } else if (nextLoggerProcessor != null) {
+                // If there's a next processor, pass the log request to it
                 nextLoggerProcessor.log(logLevel, message);
             }
         }
+
+        // Log levels this processor handles itself; the base processor handles none and only passes messages on
+        protected boolean handles(int logLevel) {
+            return false;
+        }
+
+        // Processes a message of a level this processor handles
+        protected void write(int logLevel, String message) {
+        }
+
+        // Opt-in for LogProcessorChain's table: a processor returns true to promise that handles() gives the same answer
+        // for a level for as long as the processor is in a chain, and that it does not override log(). The table then
+        // sends each level straight past it or to it. Processors that do not opt in are asked every time, as in a
+        // plain chain.
+        protected boolean fixedLevels() {
+            return false;
+        }
     }
 
     // Concrete class for processing INFO level logs
@@ -46,15 +72,21 @@ public class ChainOfResponsibilityDesignPattern {
         }
 
         @Override
-        // Handles the INFO level log
-        public void log(int logLevel, String message) {
-            if (logLevel == INFO) {
-                // If the log level is INFO, process the message
-                System.out.println("INFO: " + message);
-            } else {
-                // Otherwise, pass the message to the next processor in the chain
-                super.log(logLevel, message);
-            }
+        // Handles the INFO level log; other levels are passed to the next processor in the chain
+        protected boolean handles(int logLevel) {
+            return logLevel == INFO;
+        }
+
+        @Override
+        // Always handles the same level, so a LogProcessorChain can route to it by table
+        protected boolean fixedLevels() {
+            return true;
+        }
+
+        @Override
+        // Processes the INFO level log
+        protected void write(int logLevel, String message) {
+            System.out.println("INFO: " + message);
         }
     }
 
@@ -67,15 +99,21 @@ public class ChainOfResponsibilityDesignPattern {
         }
 
         @Override
-        // Handles the ERROR level log
-        public void log(int logLevel, String message) {
-            if (logLevel == ERROR) {
-                // If the log level is ERROR, process the message
-                System.out.println("ERROR: " + message);
-            } else {
-                // Otherwise, pass the message to the next processor in the chain
-                super.log(logLevel, message);
-            }
+        // Handles the ERROR level log; other levels are passed to the next processor in the chain
+        protected boolean handles(int logLevel) {
+            return logLevel == ERROR;
+        }
+
+        @Override
+        // Always handles the same level, so a LogProcessorChain can route to it by table
+        protected boolean fixedLevels() {
+            return true;
+        }
+
+        @Override
+        // Processes the ERROR level log
+        protected void write(int logLevel, String message) {
+            System.out.println("ERROR: " + message);
         }
     }
 
@@ -88,14 +126,130 @@ public class ChainOfResponsibilityDesignPattern {
         }
 
         @Override
-        // Handles the DEBUG level log
+        // Handles the DEBUG level log; other levels are passed to the next processor in the chain
+        protected boolean handles(int logLevel) {
+            return logLevel == DEBUG;
+        }
+
+        @Override
+        // Always handles the same level, so a LogProcessorChain can route to it by table
+        protected boolean fixedLevels() {
+            return true;
+        }
+
+        @Override
+        // Processes the DEBUG level log
+        protected void write(int logLevel, String message) {
+            System.out.println("DEBUG: " + message);
+        }
+    }
+
+    // Holds a chain of log processors together with a table of the processor each log level goes to.
+    // The table is rebuilt whenever processors are added or removed and swapped in with the chain as one snapshot, so
+    // logging threads never take a lock and always see a table that matches a chain.
+    public static class LogProcessorChain {
+
+        // Levels from 0 up to this bound are looked up in the table; any other level walks the chain from the head
+        static final int TABLE_SIZE = 16;
+
+        // Processors in chain order; only changed under the lock
+        private final List<LogProcessor> processors = new ArrayList<>();
+        private volatile Compiled compiled = new Compiled(null, new LogProcessor[TABLE_SIZE]);
+
+        public LogProcessorChain() {
+        }
+
+        // Takes over an existing chain, following it from its head
+        public LogProcessorChain(LogProcessor head) {
+            for (LogProcessor processor = head; processor != null; processor = processor.nextLoggerProcessor) {
+                processors.add(processor);
+            }
+            compiled = compile(processors);
+        }
+
+        // One array load, then the processor that handles the level, however long the chain is
         public void log(int logLevel, String message) {
-            if (logLevel == DEBUG) {
-                // If the log level is DEBUG, process the message
-                System.out.println("DEBUG: " + message);
-            } else {
-                // Otherwise, pass the message to the next processor in the chain
-                super.log(logLevel, message);
+            Compiled current = compiled;
+            if (logLevel >= 0 && logLevel < TABLE_SIZE) {
+                LogProcessor processor = current.byLevel[logLevel];
+                if (processor != null) {
+                    processor.log(logLevel, message);
+                }
+            } else if (current.head != null) {
+                current.head.log(logLevel, message);
+            }
+        }
+
+        // Adds a processor at the end of the chain, where it sees only the levels no earlier processor handled
+        public synchronized void addLast(LogProcessor processor) {
+            add(processors.size(), processor);
+        }
+
+        // Adds a processor at the head of the chain, where it sees every message first
+        public synchronized void addFirst(LogProcessor processor) {
+            add(0, processor);
+        }
+
+        // Removes a processor; messages already on their way through it still reach the rest of the chain
+        public synchronized boolean remove(LogProcessor processor) {
+            int index = processors.indexOf(processor);
+            if (index == -1) {
+                return false;
+            }
+            processors.remove(index);
+            if (index > 0) {
+                processors.get(index - 1).nextLoggerProcessor = index < processors.size() ? processors.get(index) : null;
+            }
+            compiled = compile(processors);
+            return true;
+        }
+
+        // Current first processor of the chain, for walking it the usual way
+        public LogProcessor head() {
+            return compiled.head;
+        }
+
+        private void add(int index, LogProcessor processor) {
+            if (processors.contains(processor)) {
+                throw new IllegalArgumentException("Processor is already in the chain");
+            }
+            processor.nextLoggerProcessor = index < processors.size() ? processors.get(index) : null;
+            processors.add(index, processor);
+            if (index > 0) {
+                processors.get(index - 1).nextLoggerProcessor = processor;
+            }
+            compiled = compile(processors);
+        }
+
+        // For every level, the first processor in the chain that either handles it or has not opted in to fixed levels
+        // and so has to be asked; from such a processor the message goes on down the chain as usual.
+        // Processors with fixed levels that do not handle the level would only pass it on, so they are skipped.
+        static Compiled compile(List<LogProcessor> processors) {
+            LogProcessor[] byLevel = new LogProcessor[TABLE_SIZE];
+            boolean[] fixedLevels = new boolean[processors.size()];
+            for (int i = 0; i < processors.size(); i++) {
+                fixedLevels[i] = processors.get(i).fixedLevels();
+            }
+            for (int level = 0; level < TABLE_SIZE; level++) {
+                for (int i = 0; i < processors.size(); i++) {
+                    LogProcessor processor = processors.get(i);
+                    if (!fixedLevels[i] || processor.handles(level)) {
+                        byLevel[level] = processor;
+                        break;
+                    }
+                }
+            }
+            return new Compiled(processors.isEmpty() ? null : processors.get(0), byLevel);
+        }
+
+        // A chain and its table, published together
+        static final class Compiled {
+            final LogProcessor head;
+            final LogProcessor[] byLevel;
+
+            Compiled(LogProcessor head, LogProcessor[] byLevel) {
+                this.head = head;
+                this.byLevel = byLevel;
             }
         }
     }
@@ -110,5 +264,29 @@ public class ChainOfResponsibilityDesignPattern {
         logObject.log(LogProcessor.ERROR, "exception happens"); // This will be processed by ErrorLogProcessor
         logObject.log(LogProcessor.DEBUG, "need to debug this "); // This will be processed by DebugLogProcessor
         logObject.log(LogProcessor.INFO, "just for info "); // This will be processed by InfoLogProcessor
+
+        // The same chain compiled into a table: each message goes straight to its processor
+        LogProcessorChain chain = new LogProcessorChain(logObject);
+        chain.log(LogProcessor.ERROR, "exception happens");
+
+        // Processors can be added at runtime; a new head that handles ERROR takes it over from ErrorLogProcessor
+        chain.addFirst(new LogProcessor(null) {
+            @Override
+            protected boolean handles(int logLevel) {
+                return logLevel == ERROR;
+            }
+
+            @Override
+            protected boolean fixedLevels() {
+                return true;
+            }
+
+            @Override
+            protected void write(int logLevel, String message) {
+                System.out.println("ALERT: " + message);
+            }
+        });
+        chain.log(LogProcessor.ERROR, "exception happens");
+        chain.log(LogProcessor.DEBUG, "need to debug this ");
     }
 }
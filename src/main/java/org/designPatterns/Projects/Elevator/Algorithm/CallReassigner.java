@@ -0,0 +1,132 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
+
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Re-scores the unanswered hall calls of a building every so often and moves a call to another car when that car's
+estimated arrival beats the owner's by at least minimumGain.
+Every car is scored with its own scheduler's estimate, whichever dispatcher made the first choice. Calls given to
+several cars at once (SHARED) and calls whose owner is unknown are left alone.
+A move never leaves the call with nobody: the new car gets it first and the old car is told to withdraw it
+afterwards, both through the cars' inboxes. If the old car reaches the floor in between, both cars stop there.
+A car whose actor has retired refuses the call, which then stays where it was.
+A pass looks at no more than maxCallsPerPass calls and picks up where the last one stopped, so its cost stays
+bounded however many calls are open. Nothing drains the cars' inboxes during a pass, so a call is left where it is
+when either car's inbox is full rather than piling more requests behind it.
+*/
+public class CallReassigner implements Runnable {
+    public ExternalDispatcher dispatcher;
+    final ControllerRegistry registry;
+    // Milliseconds a move has to save
+    public long minimumGain = 10_000;
+    public int maxCallsPerPass = 256;
+    // Milliseconds between passes when running on its own thread
+    public long period = 2000;
+    public volatile long reassignedCalls;
+
+    int cursor;
+    private Thread thread;
+    private volatile boolean stopped;
+
+    public CallReassigner(ExternalDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        this.registry = dispatcher.registry;
+    }
+
+    // Returns how many calls were moved
+    public int reassignPass() {
+        HallCallBoard board = dispatcher.hallCalls;
+        int start = cursor;
+        boolean wrapped = false;
+        int moved = 0;
+        int cell = board.nextLit(start);
+        for (int examined = 0; examined < maxCallsPerPass; examined++) {
+            if (cell == -1) {
+                // Carry on from the lowest floor, once
+                if (wrapped) {
+                    break;
+                }
+                wrapped = true;
+                cell = board.nextLit(0);
+            }
+            if (cell == -1 || (wrapped && cell >= start)) {
+                break;
+            }
+            if (reassign(board, cell >>> 1, (cell & 1) == 0 ? Direction.UP : Direction.DOWN)) {
+                moved++;
+            }
+            cursor = cell + 1;
+            cell = board.nextLit(cursor);
+        }
+        reassignedCalls += moved;
+        return moved;
+    }
+
+    boolean reassign(HallCallBoard board, int floor, Direction direction) {
+        int ownerId = board.owner(floor, direction);
+        ElevatorController owner = ownerId >= 0 ? registry.controller(ownerId) : null;
+        if (owner == null || owner.inboxFull()) {
+            return false;
+        }
+        ElevatorController best = null;
+        long bestEta = estimateArrival(owner, floor, direction) - minimumGain;
+        for (ElevatorController elevatorController : registry.carsServing(floor)) {
+            if (elevatorController == owner || elevatorController.elevatorCar.isBypassing() || elevatorController.inboxFull()) {
+                continue;
+            }
+            long eta = estimateArrival(elevatorController, floor, direction);
+            if (eta < bestEta) {
+                bestEta = eta;
+                best = elevatorController;
+            }
+        }
+        // Claim the call before handing it over, so a car that has just answered it does not get it back
+        if (best == null || !board.reassigned(floor, direction, ownerId, best.elevatorCar.id)) {
+            return false;
+        }
+        // A car whose actor has retired would never answer it: the call stays with its owner
+        if (!best.acceptHandOff(floor, direction)) {
+            board.reassigned(floor, direction, best.elevatorCar.id, ownerId);
+            return false;
+        }
+        owner.withdrawHallCall(floor, direction);
+        Telemetry.publish(TelemetryEventType.CALL_ALLOCATED, best.elevatorCar.id, floor, direction);
+        return true;
+    }
+
+    long estimateArrival(ElevatorController controller, int floor, Direction direction) {
+        return controller.scheduler.estimateArrival(controller, floor, direction);
+    }
+
+    // Runs a pass every period on a virtual thread until shutdown
+    public CallReassigner start() {
+        stopped = false;
+        thread = Thread.ofVirtual().name("call-reassigner").start(this);
+        return this;
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            LockSupport.parkNanos(this, period * 1_000_000);
+            if (!stopped) {
+                reassignPass();
+            }
+        }
+    }
+
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+
+import java.util.function.LongSupplier;
+
+/*
+Streaming estimate of hall-call demand per floor, used to decide where idle cars should wait.
+Each floor has two decayed counters, both updated in O(1) when a call is recorded:
+    recent   exponentially decayed count of the last few minutes of calls, which follows a peak as it builds up
+    profile  calls per time-of-day window, carried over to the next day with a decay factor, which anticipates
+             the peaks that come back every day
+Decay is applied lazily: every counter remembers when it was last brought up to date and is scaled on the next read
+or write, so nothing ever walks all floors. predictedRate returns whichever of the two expects more calls.
+Times are milliseconds from clock: wall-clock time by default, virtual time inside the simulation.
+*/
+public class DemandModel {
+    static final long HOUR = 3_600_000;
+    static final long DAY = 24 * HOUR;
+
+    public final int floors;
+    public final long halfLife;
+    public final long windowLength;
+    public final double dayDecay;
+    public LongSupplier clock = System::currentTimeMillis;
+
+    final double lambda;
+    final int windowsPerDay;
+    final double[] recent;
+    final long[] recentTime;
+    final double[] profile;
+    final long[] profileDay;
+
+    // Ten minute half-life, fifteen minute windows, yesterday weighs 0.8 of today
+    public DemandModel(int floors) {
+        this(floors, 10 * 60_000, 15 * 60_000, 0.8);
+    }
+
+    public DemandModel(int floors, long halfLife, long windowLength, double dayDecay) {
+        if (floors <= 0 || halfLife <= 0 || windowLength <= 0 || DAY % windowLength != 0) {
+            throw new IllegalArgumentException("Invalid demand model: floors=" + floors + " halfLife=" + halfLife
+                    + " windowLength=" + windowLength + " (must divide a day)");
+        }
+        if (dayDecay < 0 || dayDecay >= 1) {
+            throw new IllegalArgumentException("Day decay must be in [0, 1): " + dayDecay);
+        }
+        this.floors = floors;
+        this.halfLife = halfLife;
+        this.windowLength = windowLength;
+        this.dayDecay = dayDecay;
+        this.lambda = Math.log(2) / halfLife;
+        this.windowsPerDay = (int) (DAY / windowLength);
+        this.recent = new double[floors];
+        this.recentTime = new long[floors];
+        this.profile = new double[windowsPerDay * floors];
+        this.profileDay = new long[windowsPerDay * floors];
+    }
+
+    public void record(int floor) {
+        record(floor, clock.getAsLong());
+    }
+
+    // Counts one hall call at floor; calls recorded slightly out of order are counted without decay
+    public synchronized void record(int floor, long time) {
+        if (floor < 0 || floor >= floors) {
+            return;
+        }
+        recent[floor] = recentCount(floor, time) + 1;
+        recentTime[floor] = Math.max(time, recentTime[floor]);
+
+        int cell = cell(floor, time);
+        profile[cell] = profileCount(cell, time) + 1;
+        profileDay[cell] = Math.max(Math.floorDiv(time, DAY), profileDay[cell]);
+    }
+
+    public double predictedRate(int floor) {
+        return predictedRate(floor, clock.getAsLong());
+    }
+
+    // Expected hall calls per hour at floor around the given time
+    public synchronized double predictedRate(int floor, long time) {
+        if (floor < 0 || floor >= floors) {
+            return 0;
+        }
+        return Math.max(recentRate(floor, time), profileRate(floor, time));
+    }
+
+    public synchronized double recentRate(int floor, long time) {
+        // The decayed count of a steady stream of calls settles at rate / lambda
+        return recentCount(floor, time) * lambda * HOUR;
+    }
+
+    public synchronized double profileRate(int floor, long time) {
+        // With a daily decay d the count of a window settles at callsPerWindow / (1 - d)
+        return profileCount(cell(floor, time), time) * (1 - dayDecay) * HOUR / windowLength;
+    }
+
+    private double recentCount(int floor, long time) {
+        long elapsed = time - recentTime[floor];
+        return elapsed > 0 ? recent[floor] * Math.exp(-lambda * elapsed) : recent[floor];
+    }
+
+    private double profileCount(int cell, long time) {
+        long days = Math.floorDiv(time, DAY) - profileDay[cell];
+        return days > 0 ? profile[cell] * Math.pow(dayDecay, days) : profile[cell];
+    }
+
+    private int cell(int floor, long time) {
+        int window = (int) (Math.floorMod(time, DAY) / windowLength);
+        return window * floors + floor;
+    }
+}
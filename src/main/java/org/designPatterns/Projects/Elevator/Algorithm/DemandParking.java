@@ -0,0 +1,79 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+import org.designPatterns.Projects.Elevator.Controller.ParkingPolicy;
+
+/*
+Parks idle cars where the DemandModel expects the next hall calls.
+A parked car is scored by the expected distance to the next call: the predicted call rate of every floor times the
+distance from that floor to the nearest parked car, which is either this car or one that is already waiting. Picking
+the floor with the lowest expected distance puts a lone car at the weighted median of demand, and the next idle car
+covers whatever the first one leaves far away. The car only moves when that saves at least moveMargin of the
+expected distance from where it already is. One decision costs O(floors^2 + floors x cars), once per idle period.
+*/
+public class DemandParking implements ParkingPolicy {
+    // Calls per hour in the whole building below which there is nothing to learn from, so the car stays put
+    public double minimumRate = 1;
+    public double moveMargin = 0.1;
+
+    final ControllerRegistry registry;
+    public final DemandModel demand;
+
+    public DemandParking(ControllerRegistry registry, DemandModel demand) {
+        this.registry = registry;
+        this.demand = demand;
+    }
+
+    @Override
+    public int parkingFloor(ElevatorController controller) {
+        long now = demand.clock.getAsLong();
+        ElevatorCar car = controller.elevatorCar;
+        FloorStopSet served = car.servedFloors();
+        ElevatorController[] cars = registry.controllers();
+
+        // Predicted rate of every floor the car serves, and how far each one is from the nearest other parked car
+        int top = served.last();
+        double[] rate = new double[top + 1];
+        int[] covered = new int[top + 1];
+        double total = 0;
+        for (int floor = served.first(); floor != -1; floor = served.nextAtOrAbove(floor + 1)) {
+            rate[floor] = demand.predictedRate(floor, now);
+            total += rate[floor];
+            covered[floor] = Integer.MAX_VALUE;
+            for (ElevatorController other : cars) {
+                int parked = other.parkedFloor;
+                if (other != controller && parked != -1) {
+                    covered[floor] = Math.min(covered[floor], Math.abs(parked - floor));
+                }
+            }
+        }
+        if (total < minimumRate) {
+            return -1;
+        }
+
+        int best = -1;
+        double bestCost = Double.MAX_VALUE;
+        for (int floor = served.first(); floor != -1; floor = served.nextAtOrAbove(floor + 1)) {
+            double cost = expectedDistance(served, rate, covered, floor);
+            if (cost < bestCost) {
+                best = floor;
+                bestCost = cost;
+            }
+        }
+        double currentCost = served.contains(car.currentFloor)
+                ? expectedDistance(served, rate, covered, car.currentFloor) : Double.MAX_VALUE;
+        return bestCost < currentCost * (1 - moveMargin) ? best : -1;
+    }
+
+    private static double expectedDistance(FloorStopSet served, double[] rate, int[] covered, int parkAt) {
+        double cost = 0;
+        for (int floor = served.first(); floor != -1; floor = served.nextAtOrAbove(floor + 1)) {
+            cost += rate[floor] * Math.min(Math.abs(floor - parkAt), covered[floor]);
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,96 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.designPatterns.Projects.Elevator.State.ElevatorState;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
+
+/*
+Destination dispatch: the hall panel takes the target floor, so the dispatcher knows the whole trip before any car
+arrives. Each car is scored by its ETA at the origin plus the cost of the stops the trip would add. A car that
+already stops at the origin and at (or near) the destination adds almost nothing, so passengers heading to the same
+part of the building end up grouped in the same car instead of every car stopping everywhere.
+The chosen car gets both stops up front and the passenger is told which car to board. Calls without a destination
+fall back to plain ETA allocation. Cars too full to pick anyone up only get trips no other car can take.
+*/
+public class DestinationDispatcher extends EtaDispatcher {
+    // Destinations this many floors from an existing stop count as nearby
+    public int groupingRadius = 2;
+
+    public DestinationDispatcher(ControllerRegistry registry) {
+        super(registry);
+    }
+
+    @Override
+    public int allocateDestination(int origin, int destination) {
+        Direction direction = destination > origin ? Direction.UP : Direction.DOWN;
+        ElevatorController best = null;
+        int bestRank = Integer.MAX_VALUE;
+        long bestCost = Long.MAX_VALUE;
+        for (ElevatorController elevatorController : registry.carsServing(origin)) {
+            ElevatorCar car = elevatorController.elevatorCar;
+            if (!car.serves(destination)) {
+                continue;
+            }
+            // A car pulling away from the origin looks like it is right there, but the passenger can no longer board
+            // it; such cars are only used when nothing else serves the trip
+            boolean departed = car.elevatorState == ElevatorState.MOVING && car.currentFloor == origin;
+            int rank = departed ? 2 : car.isBookedUp() ? 1 : 0;
+            long cost = estimateArrival(elevatorController, origin, direction)
+                    + addedStopCost(elevatorController, origin, destination, direction);
+            if (rank < bestRank || (rank == bestRank && cost < bestCost)) {
+                bestRank = rank;
+                bestCost = cost;
+                best = elevatorController;
+            }
+        }
+        if (best == null) {
+            return -1;
+        }
+
+        // The destination can only be pre-loaded if the car picks the passenger up before passing it
+        boolean preload = !best.isBehindCar(origin, direction);
+        best.book(origin, direction);
+        best.submitExternalRequest(origin, direction);
+        if (preload) {
+            best.submitInternalRequest(destination, direction);
+        }
+        Telemetry.publish(TelemetryEventType.CALL_ALLOCATED, best.elevatorCar.id, origin, direction);
+        return best.elevatorCar.id;
+    }
+
+    // Passengers were told which car to board, so a full car keeps its calls and comes back for them on its next sweep
+    @Override
+    public boolean handOff(int floor, Direction direction, ElevatorController from) {
+        return false;
+    }
+
+    long addedStopCost(ElevatorController controller, int origin, int destination, Direction direction) {
+        ElevatorCar car = controller.elevatorCar;
+        FloorStopSet stops = direction == Direction.UP ? controller.upMinPQ : controller.downMaxPQ;
+
+        long doorDwellTime = car.travelTimeModel.doorDwellTime;
+        long cost = stops.contains(origin) || car.currentFloor == origin ? 0 : doorDwellTime;
+        if (stops.contains(destination)) {
+            return cost;
+        }
+        int above = stops.nextAtOrAbove(destination);
+        int below = stops.nextAtOrBelow(destination);
+        boolean nearby = (above != -1 && above - destination <= groupingRadius)
+                || (below != -1 && destination - below <= groupingRadius);
+        // A new stop costs a door cycle plus the drive past the end of the sweep; one next to a stop the car already
+        // makes is charged half, which is what pulls passengers for the same part of the building into one car
+        if (nearby) {
+            return cost + doorDwellTime / 2;
+        }
+        int sweepEnd = stops.isEmpty() ? origin : (direction == Direction.UP ? stops.last() : stops.first());
+        int extension = direction == Direction.UP ? destination - Math.max(sweepEnd, origin)
+                : Math.min(sweepEnd, origin) - destination;
+        return cost + doorDwellTime + car.travelTimeModel.travelTime(Math.max(0, extension));
+    }
+}
@@ -1,16 +1,30 @@
 package org.designPatterns.Projects.Elevator.Algorithm;
 
 
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
 import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
 import org.designPatterns.Projects.Elevator.State.Direction;
 
 public class ElevatorDispatcher extends ExternalDispatcher {
+    public ElevatorDispatcher(ControllerRegistry registry) {
+        super(registry);
+    }
+
     @Override
     public void allocateElevator(int floor, Direction direction) {
-        for (ElevatorController elevatorController : elevatorControllerList) {
-            int elevatorID = elevatorController.elevatorCar.id;
-            elevatorController.submitExternalRequest(floor, direction);
-            System.out.println("Allocated elevator " + elevatorID + " to floor " + floor + " (" + direction + ")");
+        ElevatorController[] cars = registry.carsServing(floor);
+        // Cars too full to pick anyone up are left out, unless that would leave nobody
+        boolean anyWithRoom = false;
+        for (ElevatorController elevatorController : cars) {
+            anyWithRoom |= !elevatorController.elevatorCar.isBypassing();
+        }
+        ElevatorController[] chosen = new ElevatorController[cars.length];
+        int count = 0;
+        for (ElevatorController elevatorController : cars) {
+            if (!anyWithRoom || !elevatorController.elevatorCar.isBypassing()) {
+                chosen[count++] = elevatorController;
+            }
         }
+        assignAll(chosen, count, floor, direction);
     }
 }
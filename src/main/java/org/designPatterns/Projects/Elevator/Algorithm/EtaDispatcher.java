@@ -0,0 +1,77 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+/*
+Cost-based dispatcher: every car is scored by its estimated time of arrival at the calling floor and the call
+goes to the single best car. The estimate comes from the car's StopScheduler, so it follows the order the
+controller will really serve its stops in. Cars too full to pick anyone up are only used when every car is.
+*/
+public class EtaDispatcher extends ExternalDispatcher {
+    public EtaDispatcher(ControllerRegistry registry) {
+        super(registry);
+    }
+
+    @Override
+    public void allocateElevator(int floor, Direction direction) {
+        ElevatorController best = best(floor, -1, direction);
+        if (best != null) {
+            assign(best, floor, direction);
+        } else {
+            unassigned(floor, direction);
+        }
+    }
+
+    // A destination panel only scores the cars that also stop at the destination, so in a building with banks the
+    // call goes to a bank the passenger can ride; any car serving the floor when no car serves both
+    @Override
+    public int allocateDestination(int origin, int destination) {
+        Direction direction = destination > origin ? Direction.UP : Direction.DOWN;
+        if (!hallCalls.press(origin, direction)) {
+            return -1;
+        }
+        ElevatorController best = best(origin, destination, direction);
+        if (best == null) {
+            best = best(origin, -1, direction);
+        }
+        if (best != null) {
+            assign(best, origin, direction);
+        } else {
+            unassigned(origin, direction);
+        }
+        return -1;
+    }
+
+    // Car serving the floor, and the destination unless it is -1, with the best ETA
+    private ElevatorController best(int floor, int destination, Direction direction) {
+        ElevatorController best = null;
+        boolean bestBypassing = true;
+        long bestEta = Long.MAX_VALUE;
+        for (ElevatorController elevatorController : registry.carsServing(floor)) {
+            if (destination >= 0 && !elevatorController.elevatorCar.serves(destination)) {
+                continue;
+            }
+            boolean bypassing = elevatorController.elevatorCar.isBypassing();
+            long eta = estimateArrival(elevatorController, floor, direction);
+            if ((bestBypassing && !bypassing) || (bestBypassing == bypassing && eta < bestEta)) {
+                bestBypassing = bypassing;
+                bestEta = eta;
+                best = elevatorController;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    long handOffCost(ElevatorController controller, int floor, Direction direction) {
+        return estimateArrival(controller, floor, direction);
+    }
+
+    // Scored against the route the car's own scheduler will take
+    public long estimateArrival(ElevatorController controller, int floor, Direction direction) {
+        return controller.scheduler.estimateArrival(controller, floor, direction);
+    }
+}
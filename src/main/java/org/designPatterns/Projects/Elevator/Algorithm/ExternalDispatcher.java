@@ -2,19 +2,136 @@ package org.designPatterns.Projects.Elevator.Algorithm;
 
 
 
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
 import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
-import org.designPatterns.Projects.Elevator.Controller.ElevatorCreator;
 import org.designPatterns.Projects.Elevator.State.Direction;
-
-import java.util.List;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
 
 public abstract class ExternalDispatcher {
-    List<ElevatorController> elevatorControllerList = ElevatorCreator.elevatorControllerList;
+    ControllerRegistry registry;
+    // Learns where hall calls come from, so idle cars can be parked near the next ones; null when not tracked
+    public DemandModel demand;
+    // Lit hall-call buttons: a press on one that is already lit stops here
+    public final HallCallBoard hallCalls;
+    // Moves unanswered hall calls to cars that will get there sooner; null leaves every call with its first car
+    public CallReassigner reassigner;
+
+    public ExternalDispatcher(ControllerRegistry registry) {
+        this.registry = registry;
+        hallCalls = registry.newHallCallBoard();
+    }
 
     public abstract void allocateElevator(int floor, Direction direction);
 
     public void submitExternalRequest(int floor, Direction direction) {
+        if (!hallCalls.press(floor, direction)) {
+            return;
+        }
+        if (demand != null) {
+            demand.record(floor);
+        }
         // Forward the request to the allocation strategy
         allocateElevator(floor, direction);
     }
+
+    // Hall call from a destination panel. Returns the id of the car the passenger should take, or -1 if any car
+    // that stops may be boarded.
+    public int submitDestinationRequest(int origin, int destination) {
+        if (demand != null) {
+            demand.record(origin);
+        }
+        return allocateDestination(origin, destination);
+    }
+
+    // Gives a hall call to another car because the car it was allocated to is too full to stop for it.
+    // Returns false when every other car serving the floor is full too, the call has just been moved to another car, or
+    // the chosen car has retired; the caller then keeps the call.
+    public boolean handOff(int floor, Direction direction, ElevatorController from) {
+        ElevatorController best = null;
+        long bestCost = Long.MAX_VALUE;
+        for (ElevatorController elevatorController : registry.carsServing(floor)) {
+            if (elevatorController == from || elevatorController.elevatorCar.isBypassing()) {
+                continue;
+            }
+            long cost = handOffCost(elevatorController, floor, direction);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = elevatorController;
+            }
+        }
+        return best != null && claim(hallCalls, floor, direction, from, best) && handOver(floor, direction, from, best);
+    }
+
+    // Moves the call to the new car on the board before the car is sent it, so the new car's answer is not ignored.
+    // Fails when the call has meanwhile been moved to yet another car; a call the board does not hold for one car,
+    // because it never went through the board or was given to several cars, is handed over as it is.
+    static boolean claim(HallCallBoard board, int floor, Direction direction, ElevatorController from, ElevatorController to) {
+        return board.owner(floor, direction) < 0
+                || board.reassigned(floor, direction, from.elevatorCar.id, to.elevatorCar.id);
+    }
+
+    // Sends a claimed call to its new car. A car whose actor has retired refuses it, and the board gives the call back
+    // to the car it came from.
+    boolean handOver(int floor, Direction direction, ElevatorController from, ElevatorController to) {
+        if (!to.acceptHandOff(floor, direction)) {
+            hallCalls.reassigned(floor, direction, to.elevatorCar.id, from.elevatorCar.id);
+            return false;
+        }
+        Telemetry.publish(TelemetryEventType.CALL_ALLOCATED, to.elevatorCar.id, floor, direction);
+        return true;
+    }
+
+    // The car has stopped at the floor and no longer has a call pending there in this direction. The button only goes
+    // dark if the call was this car's to answer; one held by another car stays lit until that car gets there.
+    public void answered(ElevatorController controller, int floor, Direction direction) {
+        hallCalls.answered(floor, direction, controller.elevatorCar.id);
+    }
+
+    // Records a car as the hall call's owner on the board, then gives it the call. A running car can answer the call
+    // as soon as it has it, which only turns the button off once the board knows the call is the car's.
+    void assign(ElevatorController controller, int floor, Direction direction) {
+        hallCalls.assigned(floor, direction, controller.elevatorCar.id);
+        send(controller, floor, direction);
+    }
+
+    // Gives a hall call to the first count cars at once. Every car is recorded on the board before any gets the call,
+    // so whichever answers it first turns the button off.
+    void assignAll(ElevatorController[] cars, int count, int floor, Direction direction) {
+        if (count == 0) {
+            unassigned(floor, direction);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            hallCalls.assigned(floor, direction, cars[i].elevatorCar.id);
+        }
+        for (int i = 0; i < count; i++) {
+            send(cars[i], floor, direction);
+        }
+    }
+
+    // No car can take the call, e.g. none serves the floor any more: the button goes dark again instead of staying
+    // lit with nobody coming and swallowing every later press
+    void unassigned(int floor, Direction direction) {
+        hallCalls.answered(floor, direction);
+    }
+
+    void send(ElevatorController controller, int floor, Direction direction) {
+        controller.submitExternalRequest(floor, direction);
+        Telemetry.publish(TelemetryEventType.CALL_ALLOCATED, controller.elevatorCar.id, floor, direction);
+    }
+
+    // Plain travel time to the floor; cost-based dispatchers use their own estimate
+    long handOffCost(ElevatorController controller, int floor, Direction direction) {
+        return controller.elevatorCar.travelTime(floor);
+    }
+
+    // Dispatchers that do not group by destination only use the direction of travel
+    public int allocateDestination(int origin, int destination) {
+        Direction direction = destination > origin ? Direction.UP : Direction.DOWN;
+        if (hallCalls.press(origin, direction)) {
+            allocateElevator(origin, direction);
+        }
+        return -1;
+    }
 }
@@ -0,0 +1,199 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+The lit hall-call buttons of a building: one bit per floor and direction, 32 floors to an atomic long.
+A press on a lit button costs one volatile read and returns false, so repeated presses never reach a dispatcher or a
+car. Lighting and clearing are CAS loops on the floor's word, safe from any thread.
+Next to every button the board remembers which car the call was given to, so it can be moved to a better one later.
+The board covers the floors of its ControllerRegistry, which creates it and resizes it while rebuilding its snapshot
+for a new floor. A resize only appends segments of 32 floors and shares the existing ones with the bigger array, so
+a change racing with it lands on the same words whichever array it went through.
+*/
+public class HallCallBoard {
+    // Owner of a call that is not lit, or whose car is not known
+    public static final int NONE = -1;
+    // Owner of a call that was given to several cars at once
+    public static final int SHARED = -2;
+
+    static class Segment {
+        final AtomicLong lit = new AtomicLong();
+        // Indexed by the cell within the segment, (floor % 32) * 2 + direction
+        final AtomicIntegerArray owners = new AtomicIntegerArray(64);
+
+        Segment() {
+            for (int i = 0; i < owners.length(); i++) {
+                owners.set(i, NONE);
+            }
+        }
+    }
+
+    private volatile Segment[] segments;
+
+    public HallCallBoard(int floors) {
+        segments = new Segment[0];
+        resize(floors);
+    }
+
+    // Grows the board to cover floors 0 to floors - 1. Only the registry calls this, under its lock.
+    public void resize(int floors) {
+        Segment[] current = segments;
+        int count = (floors + 31) >>> 5;
+        if (count <= current.length) {
+            return;
+        }
+        Segment[] grown = Arrays.copyOf(current, count);
+        for (int i = current.length; i < count; i++) {
+            grown[i] = new Segment();
+        }
+        segments = grown;
+    }
+
+    // Lights the button; returns false when it was already lit, i.e. the call is already being served, or when the
+    // floor is not on the board
+    public boolean press(int floor, Direction direction) {
+        Segment segment = segment(floor);
+        if (segment == null) {
+            return false;
+        }
+        long bit = bit(floor, direction);
+        while (true) {
+            long word = segment.lit.get();
+            if ((word & bit) != 0) {
+                return false;
+            }
+            if (segment.lit.compareAndSet(word, word | bit)) {
+                return true;
+            }
+        }
+    }
+
+    // A car has answered the call; the next press on this button is dispatched again
+    public void answered(int floor, Direction direction) {
+        Segment segment = segment(floor);
+        if (segment == null) {
+            return;
+        }
+        segment.owners.set(cell(floor, direction) & 63, NONE);
+        darken(segment, floor, direction);
+    }
+
+    // The given car has answered the call. Does nothing while the call is held by another car, which is still on its
+    // way and answers it itself; returns whether the button went dark.
+    public boolean answered(int floor, Direction direction, int carId) {
+        Segment segment = segment(floor);
+        if (segment == null) {
+            return false;
+        }
+        int cell = cell(floor, direction) & 63;
+        while (true) {
+            int owner = segment.owners.get(cell);
+            if (owner != carId && owner != SHARED) {
+                return false;
+            }
+            if (segment.owners.compareAndSet(cell, owner, NONE)) {
+                break;
+            }
+        }
+        darken(segment, floor, direction);
+        return true;
+    }
+
+    private static void darken(Segment segment, int floor, Direction direction) {
+        long bit = bit(floor, direction);
+        while (true) {
+            long word = segment.lit.get();
+            if ((word & bit) == 0 || segment.lit.compareAndSet(word, word & ~bit)) {
+                return;
+            }
+        }
+    }
+
+    public boolean isLit(int floor, Direction direction) {
+        Segment segment = segment(floor);
+        return segment != null && (segment.lit.get() & bit(floor, direction)) != 0;
+    }
+
+    // Records the car a lit call was given to; a second car makes the call SHARED
+    public void assigned(int floor, Direction direction, int carId) {
+        Segment segment = segment(floor);
+        if (segment == null) {
+            return;
+        }
+        int cell = cell(floor, direction) & 63;
+        while (true) {
+            int owner = segment.owners.get(cell);
+            int next = owner == NONE || owner == carId ? carId : SHARED;
+            if (owner == next || segment.owners.compareAndSet(cell, owner, next)) {
+                return;
+            }
+        }
+    }
+
+    // Moves a call from one car to another; fails if the call has been answered or moved in the meantime
+    public boolean reassigned(int floor, Direction direction, int fromCarId, int toCarId) {
+        Segment segment = segment(floor);
+        return segment != null && segment.owners.compareAndSet(cell(floor, direction) & 63, fromCarId, toCarId);
+    }
+
+    // Car the call was given to, NONE or SHARED
+    public int owner(int floor, Direction direction) {
+        Segment segment = segment(floor);
+        return segment != null ? segment.owners.get(cell(floor, direction) & 63) : NONE;
+    }
+
+    // First lit button at or after the given cell (floor * 2, plus 1 for down), or -1 past the last one
+    public int nextLit(int cell) {
+        Segment[] segments = this.segments;
+        int index = cell >>> 6;
+        if (cell < 0 || index >= segments.length) {
+            return -1;
+        }
+        long word = segments[index].lit.get() & (-1L << (cell & 63));
+        while (word == 0) {
+            if (++index == segments.length) {
+                return -1;
+            }
+            word = segments[index].lit.get();
+        }
+        return (index << 6) | Long.numberOfTrailingZeros(word);
+    }
+
+    // Number of lit buttons in the building
+    public int litCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            count += Long.bitCount(segment.lit.get());
+        }
+        return count;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lit.set(0L);
+            for (int i = 0; i < segment.owners.length(); i++) {
+                segment.owners.set(i, NONE);
+            }
+        }
+    }
+
+    static int cell(int floor, Direction direction) {
+        return (floor << 1) | (direction == Direction.UP ? 0 : 1);
+    }
+
+    private static long bit(int floor, Direction direction) {
+        return 1L << (cell(floor, direction) & 63);
+    }
+
+    private Segment segment(int floor) {
+        Segment[] segments = this.segments;
+        int index = floor >>> 5;
+        return floor >= 0 && index < segments.length ? segments[index] : null;
+    }
+}
@@ -1,22 +1,21 @@
 package org.designPatterns.Projects.Elevator.Algorithm;
 
 
-import org.designPatterns.Projects.Elevator.State.Direction;
 import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
 import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
-import org.designPatterns.Projects.Elevator.Controller.ElevatorCreator;
-
-import java.util.List;
 
 public class InternalDispatcher {
-    List<ElevatorController> elevatorControllerList = ElevatorCreator.elevatorControllerList;
+    ControllerRegistry registry;
+
+    public InternalDispatcher(ControllerRegistry registry) {
+        this.registry = registry;
+    }
 
     public void submitInternalRequest(int floor, ElevatorCar elevatorCar) {
-        for (ElevatorController controller : elevatorControllerList) {
-            if (controller.elevatorCar == elevatorCar) {
-                controller.submitInternalRequest(floor, elevatorCar.elevatorDirection);
-                break;
-            }
+        ElevatorController controller = registry.controller(elevatorCar.id);
+        if (controller != null && controller.elevatorCar == elevatorCar) {
+            controller.submitInternalRequest(floor, elevatorCar.elevatorDirection);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,20 +1,35 @@
 package org.designPatterns.Projects.Elevator.Algorithm;
 
 
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
 import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
 import org.designPatterns.Projects.Elevator.State.Direction;
 
 public class OddEvenDispatcher extends ExternalDispatcher {
+    public OddEvenDispatcher(ControllerRegistry registry) {
+        super(registry);
+    }
+
     @Override
     public void allocateElevator(int floor, Direction direction) {
-        for (ElevatorController elevatorController : elevatorControllerList) {
-            int elevatorID = elevatorController.elevatorCar.id;
-            if (elevatorID % 2 == floor % 2) {
-                // Submit the request to the allocated elevator controller
-                elevatorController.submitExternalRequest(floor, direction);
-                System.out.println("Allocated elevator " + elevatorID + " to floor " + floor + " (" + direction + ")");
-                break;
+        // First car of the floor's parity with room to pick the passenger up, else the first of that parity
+        ElevatorController allocated = null;
+        for (ElevatorController elevatorController : registry.carsServing(floor)) {
+            if (elevatorController.elevatorCar.id % 2 == floor % 2) {
+                if (!elevatorController.elevatorCar.isBypassing()) {
+                    allocated = elevatorController;
+                    break;
+                }
+                if (allocated == null) {
+                    allocated = elevatorController;
+                }
             }
         }
+        if (allocated != null) {
+            // Submit the request to the allocated elevator controller
+            assign(allocated, floor, direction);
+        } else {
+            unassigned(floor, direction);
+        }
     }
 }
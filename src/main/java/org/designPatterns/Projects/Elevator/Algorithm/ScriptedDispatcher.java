@@ -0,0 +1,60 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+import java.io.Serial;
+
+/*
+Gives each new hall call to the car a script names, in the order the calls come in; EVERY_CAR sends all cars serving
+the floor, as the broadcast dispatcher does. Used offline to replay and search assignments: when the script runs out
+the next allocation throws EndOfScript, leaving the building as it was the moment that call came in.
+*/
+public class ScriptedDispatcher extends ExternalDispatcher {
+    public static final int EVERY_CAR = -1;
+
+    public int[] script = new int[0];
+    // Calls allocated so far
+    public int position;
+    // The call the script ran out on
+    public int stoppedFloor = -1;
+    public Direction stoppedDirection;
+
+    public ScriptedDispatcher(ControllerRegistry registry) {
+        super(registry);
+    }
+
+    @Override
+    public void allocateElevator(int floor, Direction direction) {
+        if (position == script.length) {
+            stoppedFloor = floor;
+            stoppedDirection = direction;
+            throw EndOfScript.INSTANCE;
+        }
+        int carId = script[position++];
+        if (carId == EVERY_CAR) {
+            ElevatorController[] cars = registry.carsServing(floor);
+            assignAll(cars, cars.length, floor, direction);
+            return;
+        }
+        ElevatorController controller = registry.controller(carId);
+        if (controller == null || !controller.elevatorCar.serves(floor)) {
+            throw new IllegalStateException("Script gives the call on floor " + floor + " to car " + carId + ", which does not serve it");
+        }
+        assign(controller, floor, direction);
+    }
+
+    // Thrown on every run that gets past its script, so it carries no stack trace
+    public static final class EndOfScript extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        static final EndOfScript INSTANCE = new EndOfScript();
+
+        private EndOfScript() {
+            super("Hall-call script exhausted", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Components.Zone;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+Banks of cars and the cars of each bank that stop at each floor, so a zoned dispatcher finds its candidates with one
+array load.
+Every car belongs to a bank: the zone it was given, else the zone holding most of the floors it serves. Express cars
+that serve the lobby and a zone far above it belong to that zone. Cars outside every zone and cars that cover more
+than one whole zone, such as a service car, form a last bank of their own. Banks are ordered by their zone's lowest
+floor, so the banks either side of one are its neighbours. A floor served by more than one zone's bank is a lobby
+where passengers can change cars.
+The table is immutable; the dispatcher builds a new one when cars are added or removed.
+*/
+public class ZoneTable {
+    private static final ElevatorController[] NO_CARS = new ElevatorController[0];
+
+    final ElevatorController[] source;
+    public final Zone[] zones;
+    public final int serviceBank;
+    final int floors;
+    // By floor: the bank whose zone contains it, or the service bank
+    final int[] homeBank;
+    final boolean[] lobby;
+    // By car id, -1 for ids with no car
+    final int[] bankOfCar;
+    // By bank * floors + floor
+    final ElevatorController[][] candidates;
+
+    public ZoneTable(ElevatorController[] controllers) {
+        source = controllers;
+        List<Zone> found = new ArrayList<>();
+        int topFloor = 0;
+        int topId = 0;
+        for (ElevatorController controller : controllers) {
+            ElevatorCar car = controller.elevatorCar;
+            if (car.zone != null && !found.contains(car.zone)) {
+                found.add(car.zone);
+            }
+            topFloor = Math.max(topFloor, car.servedFloors().last());
+            topId = Math.max(topId, car.id);
+        }
+        found.sort(Comparator.comparingInt(zone -> zone.lowestFloor));
+        zones = found.toArray(new Zone[0]);
+        serviceBank = zones.length;
+        floors = topFloor + 1;
+
+        homeBank = new int[floors];
+        for (int floor = 0; floor < floors; floor++) {
+            homeBank[floor] = zoneIndex(floor);
+        }
+
+        bankOfCar = new int[topId + 1];
+        Arrays.fill(bankOfCar, -1);
+        List<List<ElevatorController>> byCell = new ArrayList<>();
+        for (int i = 0; i < (serviceBank + 1) * floors; i++) {
+            byCell.add(new ArrayList<>());
+        }
+        int[] banksAtFloor = new int[floors];
+        long[] bankSeen = new long[floors];
+        for (ElevatorController controller : controllers) {
+            int bank = bankOf(controller.elevatorCar);
+            bankOfCar[controller.elevatorCar.id] = bank;
+            FloorStopSet served = controller.elevatorCar.servedFloors();
+            for (int floor = served.first(); floor != -1; floor = served.nextAtOrAbove(floor + 1)) {
+                byCell.get(bank * floors + floor).add(controller);
+                // Counts distinct zone banks per floor; more than 64 banks all count as one more
+                long bit = 1L << Math.min(bank, 63);
+                if (bank != serviceBank && (bankSeen[floor] & bit) == 0) {
+                    bankSeen[floor] |= bit;
+                    banksAtFloor[floor]++;
+                }
+            }
+        }
+        candidates = new ElevatorController[byCell.size()][];
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = byCell.get(i).toArray(new ElevatorController[0]);
+        }
+        lobby = new boolean[floors];
+        for (int floor = 0; floor < floors; floor++) {
+            lobby[floor] = banksAtFloor[floor] > 1;
+        }
+    }
+
+    private int zoneIndex(int floor) {
+        for (int i = 0; i < zones.length; i++) {
+            if (zones[i].contains(floor)) {
+                return i;
+            }
+        }
+        return serviceBank;
+    }
+
+    private int bankOf(ElevatorCar car) {
+        if (car.zone != null) {
+            return found(car.zone);
+        }
+        int[] served = new int[serviceBank + 1];
+        FloorStopSet floors = car.servedFloors();
+        for (int floor = floors.first(); floor != -1; floor = floors.nextAtOrAbove(floor + 1)) {
+            served[zoneIndex(floor)]++;
+        }
+        // A car that covers more than one whole zone belongs to none; ties go to the higher zone, away from the lobby
+        int best = serviceBank;
+        int wholeZones = 0;
+        for (int i = 0; i < serviceBank; i++) {
+            if (served[i] == zones[i].highestFloor - zones[i].lowestFloor + 1) {
+                wholeZones++;
+            }
+            if (served[i] > 0 && (best == serviceBank || served[i] >= served[best])) {
+                best = i;
+            }
+        }
+        return wholeZones > 1 ? serviceBank : best;
+    }
+
+    private int found(Zone zone) {
+        for (int i = 0; i < zones.length; i++) {
+            if (zones[i] == zone) {
+                return i;
+            }
+        }
+        return serviceBank;
+    }
+
+    public int bankCount() {
+        return serviceBank + 1;
+    }
+
+    // Bank of the car with the given id, or -1 if the table does not know it
+    public int bankOfCar(int carId) {
+        return carId >= 0 && carId < bankOfCar.length ? bankOfCar[carId] : -1;
+    }
+
+    public int homeBank(int floor) {
+        return floor >= 0 && floor < floors ? homeBank[floor] : serviceBank;
+    }
+
+    public boolean isLobby(int floor) {
+        return floor >= 0 && floor < floors && lobby[floor];
+    }
+
+    // Bank that should carry a trip: the zone of the end that is not a lobby
+    public int tripBank(int origin, int destination) {
+        return isLobby(origin) && destination >= 0 && !isLobby(destination) ? homeBank(destination) : homeBank(origin);
+    }
+
+    // Cars of the bank that stop at the floor; callers must not modify the array
+    public ElevatorController[] candidates(int bank, int floor) {
+        if (bank < 0 || bank > serviceBank || floor < 0 || floor >= floors) {
+            return NO_CARS;
+        }
+        return candidates[bank * floors + floor];
+    }
+}
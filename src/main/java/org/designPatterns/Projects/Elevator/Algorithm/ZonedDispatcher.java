@@ -0,0 +1,183 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+
+import org.designPatterns.Projects.Elevator.Components.Zone;
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Zoned dispatch for tall buildings with low-, mid- and high-rise banks, express cars and sky lobbies.
+A ZoneTable gives the cars of each bank that stop at a floor; a trip goes to the bank of the zone it starts or ends
+in, and within the bank to the car with the best ETA. When that bank is saturated (every car is too full, or the
+best one would take longer than saturationEta) the neighbouring banks and the service cars are scored too, and
+when no bank has a car for the trip any car that serves both floors is used, so a call is never dropped.
+Destination panels keep one set of hall buttons per bank, as a lobby has a call button for every bank; a car of the
+bank answers them and passengers board whichever car stops that serves their floor.
+*/
+public class ZonedDispatcher extends EtaDispatcher {
+    public long saturationEta = 60_000;
+    // Calls that went to a car outside their bank
+    public final AtomicLong fallbacks = new AtomicLong();
+
+    private volatile ZoneTable table;
+    private volatile HallCallBoard[] bankCalls = new HallCallBoard[0];
+    // Each bank's buttons by its zone, null for the service bank, so a bank keeps its own buttons when adding or
+    // removing a car renumbers the banks; guarded by this
+    private final Map<Zone, HallCallBoard> boardsByZone = new HashMap<>();
+    // Scoring state for choose and handOff, one per calling thread so dispatching allocates nothing
+    private final ThreadLocal<Candidate> scratch = ThreadLocal.withInitial(Candidate::new);
+
+    public ZonedDispatcher(ControllerRegistry registry) {
+        super(registry);
+    }
+
+    // The table for the current fleet, rebuilt when a car has been added or removed
+    public ZoneTable table() {
+        ZoneTable current = table;
+        ElevatorController[] controllers = registry.controllers();
+        return current != null && current.source == controllers ? current : rebuild(controllers);
+    }
+
+    private synchronized ZoneTable rebuild(ElevatorController[] controllers) {
+        ZoneTable current = table;
+        if (current != null && current.source == controllers) {
+            return current;
+        }
+        ZoneTable rebuilt = new ZoneTable(controllers);
+        HallCallBoard[] boards = new HallCallBoard[rebuilt.bankCount()];
+        for (int bank = 0; bank < boards.length; bank++) {
+            Zone zone = bank < rebuilt.serviceBank ? rebuilt.zones[bank] : null;
+            boards[bank] = boardsByZone.computeIfAbsent(zone, unused -> registry.newHallCallBoard());
+        }
+        bankCalls = boards;
+        table = rebuilt;
+        return rebuilt;
+    }
+
+    @Override
+    public void allocateElevator(int floor, Direction direction) {
+        ZoneTable table = table();
+        ElevatorController best = choose(table, table.homeBank(floor), floor, -1, direction);
+        if (best != null) {
+            assign(best, floor, direction);
+        } else {
+            unassigned(floor, direction);
+        }
+    }
+
+    @Override
+    public int allocateDestination(int origin, int destination) {
+        Direction direction = destination > origin ? Direction.UP : Direction.DOWN;
+        ZoneTable table = table();
+        int bank = table.tripBank(origin, destination);
+        HallCallBoard board = bankCalls[bank];
+        if (!board.press(origin, direction)) {
+            return -1;
+        }
+        ElevatorController best = choose(table, bank, origin, destination, direction);
+        if (best == null) {
+            board.answered(origin, direction);
+            return -1;
+        }
+        board.assigned(origin, direction, best.elevatorCar.id);
+        best.submitExternalRequest(origin, direction);
+        Telemetry.publish(TelemetryEventType.CALL_ALLOCATED, best.elevatorCar.id, origin, direction);
+        return -1;
+    }
+
+    // Best car of the bank, then of its neighbours and the service cars if the bank is saturated, then of any car
+    ElevatorController choose(ZoneTable table, int bank, int origin, int destination, Direction direction) {
+        Candidate best = scratch.get().reset();
+        best.consider(this, table.candidates(bank, origin), origin, destination, direction);
+        if (best.car == null || best.bypassing || best.eta > saturationEta) {
+            ElevatorController local = best.car;
+            best.consider(this, table.candidates(bank - 1, origin), origin, destination, direction);
+            best.consider(this, table.candidates(bank + 1, origin), origin, destination, direction);
+            if (bank != table.serviceBank) {
+                best.consider(this, table.candidates(table.serviceBank, origin), origin, destination, direction);
+            }
+            if (best.car == null) {
+                best.consider(this, registry.carsServing(origin), origin, destination, direction);
+            }
+            if (best.car != local) {
+                fallbacks.incrementAndGet();
+            }
+        }
+        return best.car;
+    }
+
+    static class Candidate {
+        ElevatorController car;
+        boolean bypassing = true;
+        long eta = Long.MAX_VALUE;
+
+        Candidate reset() {
+            car = null;
+            bypassing = true;
+            eta = Long.MAX_VALUE;
+            return this;
+        }
+
+        void consider(EtaDispatcher dispatcher, ElevatorController[] cars, int origin, int destination, Direction direction) {
+            for (ElevatorController elevatorController : cars) {
+                if (destination < 0 || elevatorController.elevatorCar.serves(destination)) {
+                    consider(dispatcher, elevatorController, origin, direction);
+                }
+            }
+        }
+
+        void consider(EtaDispatcher dispatcher, ElevatorController elevatorController, int origin, Direction direction) {
+            boolean carBypassing = elevatorController.elevatorCar.isBypassing();
+            long carEta = dispatcher.estimateArrival(elevatorController, origin, direction);
+            if ((bypassing && !carBypassing) || (bypassing == carBypassing && carEta < eta)) {
+                car = elevatorController;
+                bypassing = carBypassing;
+                eta = carEta;
+            }
+        }
+    }
+
+    @Override
+    public void answered(ElevatorController controller, int floor, Direction direction) {
+        super.answered(controller, floor, direction);
+        // Every bank's button is turned off by the car the call was given to, which may be a neighbouring bank's car
+        // or a service car when the bank was saturated
+        for (HallCallBoard board : bankCalls) {
+            board.answered(floor, direction, controller.elevatorCar.id);
+        }
+    }
+
+    // A full car's call goes to the car of the same bank that gets there first, so the bank's button is still
+    // answered by a car its passengers can take
+    @Override
+    public boolean handOff(int floor, Direction direction, ElevatorController from) {
+        ZoneTable table = table();
+        Candidate best = scratch.get().reset();
+        for (ElevatorController elevatorController : table.candidates(table.bankOfCar(from.elevatorCar.id), floor)) {
+            if (elevatorController != from && !elevatorController.elevatorCar.isBypassing()) {
+                best.consider(this, elevatorController, floor, direction);
+            }
+        }
+        if (best.car == null || !claim(hallCalls, floor, direction, from, best.car)) {
+            return false;
+        }
+        // The bank's button now waits for the new car; moved before the car is sent the call, like the hall button
+        for (HallCallBoard board : bankCalls) {
+            board.reassigned(floor, direction, from.elevatorCar.id, best.car.elevatorCar.id);
+        }
+        if (handOver(floor, direction, from, best.car)) {
+            return true;
+        }
+        for (HallCallBoard board : bankCalls) {
+            board.reassigned(floor, direction, best.car.elevatorCar.id, from.elevatorCar.id);
+        }
+        return false;
+    }
+}
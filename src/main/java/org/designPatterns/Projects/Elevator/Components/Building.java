@@ -1,25 +1,163 @@
 package org.designPatterns.Projects.Elevator.Components;
 
+import org.designPatterns.Projects.Elevator.Algorithm.ExternalDispatcher;
+import org.designPatterns.Projects.Elevator.Algorithm.InternalDispatcher;
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Building {
+    public String name = "building";
     List<Floor> floorList;
+    // Replaced, never modified, when floors change, so floor() can be called from any thread without a lock
+    volatile Floor[] floorsByNumber = new Floor[0];
+    // Copy-on-write, so the simulation and useDispatcher can iterate it while cars are added or removed
+    public final List<ElevatorController> controllers = new CopyOnWriteArrayList<>();
+    public ControllerRegistry registry;
+    public List<Zone> zones = new ArrayList<>();
+    public ExternalDispatcher externalDispatcher;
+    public InternalDispatcher internalDispatcher;
 
     public Building(List<Floor> floors) {
+        this(floors, new ControllerRegistry());
+    }
+
+    private Building(List<Floor> floors, ControllerRegistry registry) {
+        this.registry = registry;
         this.floorList = floors;
+        for (Floor floor : floors) {
+            indexFloor(floor);
+        }
     }
 
-    public void addFloors(Floor newFloor) {
+    public Building(String name, List<Floor> floors, List<ElevatorController> controllers, List<Zone> zones,
+                    ControllerRegistry registry, ExternalDispatcher externalDispatcher, InternalDispatcher internalDispatcher) {
+        this(floors, registry);
+        this.name = name;
+        this.zones = zones;
+        this.externalDispatcher = externalDispatcher;
+        this.internalDispatcher = internalDispatcher;
+        for (ElevatorController controller : controllers) {
+            register(controller);
+        }
+    }
+
+    // Floors and cars can be added or removed while the building is running; dispatch reads the registry without locks
+    public synchronized void addFloors(Floor newFloor) {
         floorList.add(newFloor);
-        System.out.println("Floor added: " + newFloor.floorNumber);
+        indexFloor(newFloor);
     }
 
-    public void removeFloors(Floor removeFloor) {
+    public synchronized void removeFloors(Floor removeFloor) {
         floorList.remove(removeFloor);
-        System.out.println("Floor removed: " + removeFloor.floorNumber);
+        Floor[] floors = floorsByNumber;
+        if (removeFloor.floorNumber < floors.length && floors[removeFloor.floorNumber] == removeFloor) {
+            floors = floors.clone();
+            floors[removeFloor.floorNumber] = null;
+            floorsByNumber = floors;
+            registry.removeFloor(removeFloor.floorNumber);
+        }
+    }
+
+    // Under the building's lock, like useDispatcher, so a car added while the dispatcher is swapped gets the new one
+    public synchronized void addController(ElevatorController controller) {
+        register(controller);
+    }
+
+    private void register(ElevatorController controller) {
+        if (externalDispatcher != null) {
+            controller.dispatcher = externalDispatcher;
+        }
+        registry.addCar(controller);
+        controllers.add(controller);
+    }
+
+    public synchronized ElevatorController removeController(int carId) {
+        ElevatorController controller = registry.removeCar(carId);
+        if (controller != null) {
+            controllers.remove(controller);
+            redispatchHallCalls(controller);
+        }
+        return controller;
+    }
+
+    // The removed car's hall calls go to the cars that are left, so no button stays lit waiting for a car that is not
+    // coming. Reads the car's stop sets, so the car must no longer be driven.
+    private void redispatchHallCalls(ElevatorController controller) {
+        if (externalDispatcher == null) {
+            return;
+        }
+        controller.drainInbox();
+        redispatch(controller, controller.upMinPQ, Direction.UP);
+        redispatch(controller, controller.stagedUp, Direction.UP);
+        redispatch(controller, controller.downMaxPQ, Direction.DOWN);
+        redispatch(controller, controller.stagedDown, Direction.DOWN);
+    }
+
+    private void redispatch(ElevatorController controller, FloorStopSet stops, Direction direction) {
+        for (int floor = stops.first(); floor != -1; floor = stops.nextAtOrAbove(floor + 1)) {
+            // A floor a rider asked for is only a hall call too if the board says it was given to this car
+            if (controller.carCalls.contains(floor)
+                    && externalDispatcher.hallCalls.owner(floor, direction) != controller.elevatorCar.id) {
+                continue;
+            }
+            externalDispatcher.answered(controller, floor, direction);
+            externalDispatcher.submitExternalRequest(floor, direction);
+        }
+    }
+
+    // Swaps the hall-call dispatcher for the whole building, e.g. to replay one trace against several algorithms
+    public synchronized void useDispatcher(ExternalDispatcher dispatcher) {
+        // The demand model belongs to the building and keeps feeding idle-car parking
+        if (dispatcher.demand == null) {
+            dispatcher.demand = externalDispatcher != null ? externalDispatcher.demand : null;
+        }
+        // So does call reassignment, which from now on works on the new dispatcher's calls
+        if (dispatcher.reassigner == null && externalDispatcher != null && externalDispatcher.reassigner != null) {
+            dispatcher.reassigner = externalDispatcher.reassigner;
+            dispatcher.reassigner.dispatcher = dispatcher;
+        }
+        externalDispatcher = dispatcher;
+        for (Floor floor : floorList) {
+            floor.externalDispatcher = dispatcher;
+        }
+        for (ElevatorController controller : controllers) {
+            controller.dispatcher = dispatcher;
+        }
+    }
+
+    // Floor with the given number, or null if the building has no such floor
+    public Floor floor(int floorNumber) {
+        Floor[] floors = floorsByNumber;
+        return floorNumber >= 0 && floorNumber < floors.length ? floors[floorNumber] : null;
+    }
+
+    // Controller of the car with the given id, or null if there is no such car
+    public ElevatorController controller(int carId) {
+        return registry.controller(carId);
+    }
+
+    public int topFloor() {
+        return floorsByNumber.length - 1;
+    }
+
+    private void indexFloor(Floor floor) {
+        if (floor.floorNumber < 0) {
+            throw new IllegalArgumentException("Invalid floor: " + floor.floorNumber);
+        }
+        Floor[] floors = Arrays.copyOf(floorsByNumber, Math.max(floorsByNumber.length, floor.floorNumber + 1));
+        floors[floor.floorNumber] = floor;
+        floorsByNumber = floors;
+        registry.addFloor(floor.floorNumber);
     }
 
-    List<Floor> getAllFloorList() {
+    public List<Floor> getAllFloorList() {
         return floorList;
     }
 }
@@ -1,7 +1,12 @@
 package org.designPatterns.Projects.Elevator.Components;
 
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
 import org.designPatterns.Projects.Elevator.State.Direction;
 import org.designPatterns.Projects.Elevator.State.ElevatorState;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ElevatorCar {
     public int id;
@@ -11,22 +16,69 @@ public class ElevatorCar {
     public int currentFloor;
     public Direction elevatorDirection;
     public ElevatorDoor elevatorDoor;
+    public TravelTimeModel travelTimeModel = TravelTimeModel.DEFAULT;
+    public int capacity = 16; // rated load in passengers
+    public double bypassLoad = 0.8; // share of capacity from which the car stops answering hall calls
+    public Zone zone; // bank the car belongs to, null when it has none
+    // Passengers on board; written by whoever drives the car, read by dispatchers on any thread
+    public volatile int load;
+    // Passengers destination dispatch has sent to this car who have not boarded yet; the controller releases them when
+    // the car answers their call
+    public final AtomicInteger booked = new AtomicInteger();
 
-    public ElevatorCar() {
+    public ElevatorCar(int id, InternalButtons internalButtons) {
+        this.id = id;
         display = new ElevatorDisplay();
-        internalButtons = new InternalButtons();
+        this.internalButtons = internalButtons;
         elevatorState = ElevatorState.IDLE;
         currentFloor = 0;
         elevatorDirection = Direction.UP;
-        elevatorDoor = new ElevatorDoor();
+        elevatorDoor = new ElevatorDoor(this);
+    }
+
+    public boolean serves(int floor) {
+        return internalButtons.availableButtons.contains(floor);
+    }
+
+    public FloorStopSet servedFloors() {
+        return internalButtons.availableButtons;
     }
 
-    public void showDisplay() {
-        display.showDisplay();
+    // Returns false when the car is full and the passenger has to wait for the next one
+    public boolean board() {
+        if (load >= capacity) {
+            return false;
+        }
+        load++;
+        return true;
+    }
+
+    public void alight() {
+        if (load > 0) {
+            load--;
+        }
+    }
+
+    public boolean isFull() {
+        return load >= capacity;
+    }
+
+    // A car this loaded only stops for its riders; hall calls are left to other cars
+    public boolean isBypassing() {
+        return load >= capacity * bypassLoad;
+    }
+
+    // Counting the passengers already told to board, the car will be too full to take more
+    public boolean isBookedUp() {
+        return load + booked.get() >= capacity * bypassLoad;
+    }
+
+    public String showDisplay() {
+        return display.showDisplay();
     }
 
     public void pressButton(int destination) {
-        System.out.println("Internal button pressed for floor: " + destination);
+        Telemetry.publish(TelemetryEventType.CAR_CALL, id, destination, null);
         internalButtons.pressButton(destination, this);
     }
 
@@ -34,28 +86,32 @@ public class ElevatorCar {
         this.display.setDisplay(currentFloor, elevatorDirection);
     }
 
-    public void moveElevator(Direction dir, int destinationFloor) {
-        System.out.println("Elevator moving from floor: " + currentFloor + " to floor: " + destinationFloor);
+    // Milliseconds from here to the floor, stopping there
+    public long travelTime(int floor) {
+        return travelTimeModel.travelTime(floor - currentFloor);
+    }
 
+    // Moves the car to the destination in one step and returns how long the trip takes
+    public long moveElevator(Direction dir, int destinationFloor) {
         if (currentFloor == destinationFloor) {
-            System.out.println("Elevator already at the destination floor.");
-            return;
+            Telemetry.publish(TelemetryEventType.ARRIVED, id, currentFloor, elevatorDirection);
+            return 0;
         }
+        Telemetry.publish(TelemetryEventType.DEPARTED, id, currentFloor, dir);
+        long travelTime = travelTime(destinationFloor);
+        arriveAt(destinationFloor);
+        return travelTime;
+    }
 
-        if (currentFloor < destinationFloor) {
+    // Jumps straight to the destination floor, used when time is simulated rather than stepped
+    public void arriveAt(int destinationFloor) {
+        if (destinationFloor > currentFloor) {
             elevatorDirection = Direction.UP;
-            for (int i = currentFloor + 1; i <= destinationFloor; i++) {
-                currentFloor = i;
-                setDisplay();
-                showDisplay();
-            }
-        } else {
+        } else if (destinationFloor < currentFloor) {
             elevatorDirection = Direction.DOWN;
-            for (int i = currentFloor - 1; i >= destinationFloor; i--) {
-                currentFloor = i;
-                setDisplay();
-                showDisplay();
-            }
         }
+        currentFloor = destinationFloor;
+        setDisplay();
+        Telemetry.publish(TelemetryEventType.ARRIVED, id, currentFloor, elevatorDirection);
     }
 }
@@ -13,8 +13,8 @@ public class ElevatorDisplay {
         this.direction = direction;
     }
 
-    public void showDisplay() {
-        // Print the current display state
-        System.out.println("Current Floor: " + (floor) +" Going in Direction: " + direction);
+    // The text the display shows; the car's moves themselves are published as telemetry
+    public String showDisplay() {
+        return "Current Floor: " + floor + " Going in Direction: " + direction;
     }
 }
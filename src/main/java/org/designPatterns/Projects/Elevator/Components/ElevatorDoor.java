@@ -1,13 +1,20 @@
 package org.designPatterns.Projects.Elevator.Components;
 
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
+
 public class ElevatorDoor {
+    private final ElevatorCar car;
+
+    public ElevatorDoor(ElevatorCar car) {
+        this.car = car;
+    }
+
     public void openDoor() {
-        // Simulate opening the door
-        System.out.println("Opening the Elevator door");
+        Telemetry.publish(TelemetryEventType.DOOR_OPENED, car.id, car.currentFloor, car.elevatorDirection);
     }
 
     public void closeDoor() {
-        // Simulate closing the door
-        System.out.println("Closing the Elevator door");
+        Telemetry.publish(TelemetryEventType.DOOR_CLOSED, car.id, car.currentFloor, car.elevatorDirection);
     }
 }
@@ -1,21 +1,30 @@
 package org.designPatterns.Projects.Elevator.Components;
 
 
-import org.designPatterns.Projects.Elevator.Algorithm.ElevatorDispatcher;
 import org.designPatterns.Projects.Elevator.Algorithm.ExternalDispatcher;
 import org.designPatterns.Projects.Elevator.State.Direction;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
 
 public class Floor {
     public int floorNumber;
     public ExternalDispatcher externalDispatcher;
 
-    public Floor(int floorNumber) {
+    public Floor(int floorNumber, ExternalDispatcher externalDispatcher) {
         this.floorNumber = floorNumber;
-        externalDispatcher = new ElevatorDispatcher();
+        this.externalDispatcher = externalDispatcher;
     }
+
     public void pressButton(Direction direction) {
-        System.out.println("Floor " + floorNumber + " button pressed for direction: " + direction);
+        Telemetry.publish(TelemetryEventType.HALL_CALL, 0, floorNumber, direction);
         externalDispatcher.submitExternalRequest(floorNumber, direction);
     }
+
+    // Destination panel: the passenger keys in the target floor and is told which car to take (-1 means any car)
+    public int pressButton(int destination) {
+        Direction direction = destination > floorNumber ? Direction.UP : Direction.DOWN;
+        Telemetry.publish(TelemetryEventType.HALL_CALL, 0, floorNumber, direction);
+        return externalDispatcher.submitDestinationRequest(floorNumber, destination);
+    }
 }
 
@@ -3,26 +3,24 @@ package org.designPatterns.Projects.Elevator.Components;
 
 
 import org.designPatterns.Projects.Elevator.Algorithm.InternalDispatcher;
-
-import java.util.ArrayList;
-import java.util.List;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
 
 public class InternalButtons {
-    InternalDispatcher dispatcher = new InternalDispatcher();
-    List<Integer> availableButtons;
+    InternalDispatcher dispatcher;
+    FloorStopSet availableButtons;
 
-    public InternalButtons() {
-        availableButtons = new ArrayList<>();
-        for (int i = 1; i <= 10; i++) {
-            availableButtons.add(i);
-        }
+    public InternalButtons(InternalDispatcher dispatcher, FloorStopSet availableButtons) {
+        this.dispatcher = dispatcher;
+        this.availableButtons = availableButtons;
     }
 
     public void pressButton(int destination, ElevatorCar elevatorCar) {
         if (availableButtons.contains(destination)) {
             dispatcher.submitInternalRequest(destination, elevatorCar);
         } else {
-            System.out.println("Invalid floor selection: " + destination);
+            Telemetry.publish(TelemetryEventType.CAR_CALL_REJECTED, elevatorCar.id, destination, null);
         }
     }
 }
@@ -0,0 +1,120 @@
+package org.designPatterns.Projects.Elevator.Components;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+How long a car takes to get from floor to floor. From standstill it ramps its acceleration up and down at the jerk
+limit, runs at maxSpeed if the trip is long enough to reach it, and slows down the same way; every stop keeps the
+doors open for doorDwellTime.
+Floors are evenly spaced, so the time only depends on how many floors a trip covers. It is worked out once per car
+type for every distance in the building and looked up from then on; cars with the same figures share one model.
+Times are in milliseconds, figures in metres and seconds.
+*/
+public final class TravelTimeModel {
+    private static final Map<String, TravelTimeModel> MODELS = new HashMap<>();
+
+    public static final TravelTimeModel DEFAULT = of(3.5, 2.5, 1.0, 1.5, 3000, 64);
+
+    public final double floorHeight;
+    public final double maxSpeed;
+    public final double acceleration;
+    public final double jerk;
+    public final long doorDwellTime;
+    // By number of floors travelled, start and end at rest
+    private final long[] legTimes;
+
+    private TravelTimeModel(double floorHeight, double maxSpeed, double acceleration, double jerk, long doorDwellTime, int floors) {
+        this.floorHeight = floorHeight;
+        this.maxSpeed = maxSpeed;
+        this.acceleration = acceleration;
+        this.jerk = jerk;
+        this.doorDwellTime = doorDwellTime;
+        legTimes = new long[floors];
+        for (int distance = 0; distance < floors; distance++) {
+            legTimes[distance] = Math.round(seconds(distance * floorHeight) * 1000);
+        }
+    }
+
+    // The shared model for these figures, with a table covering trips of up to floors - 1 floors
+    public static synchronized TravelTimeModel of(double floorHeight, double maxSpeed, double acceleration, double jerk,
+                                                  long doorDwellTime, int floors) {
+        if (floorHeight <= 0 || maxSpeed <= 0 || acceleration <= 0 || jerk <= 0 || doorDwellTime < 0) {
+            throw new IllegalArgumentException("Travel figures must be positive: floorHeight=" + floorHeight
+                    + " speed=" + maxSpeed + " acceleration=" + acceleration + " jerk=" + jerk + " dwell=" + doorDwellTime);
+        }
+        String key = floorHeight + "/" + maxSpeed + "/" + acceleration + "/" + jerk + "/" + doorDwellTime;
+        TravelTimeModel model = MODELS.get(key);
+        if (model == null || model.legTimes.length < floors) {
+            model = new TravelTimeModel(floorHeight, maxSpeed, acceleration, jerk, doorDwellTime, Math.max(floors, 1));
+            MODELS.put(key, model);
+        }
+        return model;
+    }
+
+    // Time to travel the given number of floors and stop
+    public long travelTime(int floors) {
+        floors = Math.abs(floors);
+        return floors < legTimes.length ? legTimes[floors] : Math.round(seconds(floors * floorHeight) * 1000);
+    }
+
+    // Driving time of a route with stops on the way, taken as evenly spaced legs so schedulers can score it in O(1);
+    // door time at the stops is not included
+    public long routeTime(long floors, long stops) {
+        if (floors <= 0) {
+            return 0;
+        }
+        long legs = Math.min(stops + 1, floors);
+        int shortLeg = (int) (floors / legs);
+        long longLegs = floors % legs;
+        return (legs - longLegs) * travelTime(shortLeg) + longLegs * travelTime(shortLeg + 1);
+    }
+
+    // Most floors a car setting off from rest can have covered, stopping, within time
+    public int floorsWithin(long time) {
+        int low = 0;
+        int high = 1;
+        while (travelTime(high) <= time) {
+            low = high;
+            high *= 2;
+        }
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (travelTime(mid) <= time) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Seconds to get from standstill up to speed: acceleration ramps up at the jerk limit, holds, and ramps down
+    private double accelerationTime(double speed) {
+        double rampSpeed = acceleration * acceleration / jerk;
+        return speed >= rampSpeed ? speed / acceleration + acceleration / jerk : 2 * Math.sqrt(speed / jerk);
+    }
+
+    // Seconds to cover the distance from rest to rest. Speeding up to v and slowing down again covers
+    // v * accelerationTime(v) metres; shorter trips never reach maxSpeed and peak at the v that fits exactly.
+    private double seconds(double metres) {
+        if (metres <= 0) {
+            return 0;
+        }
+        double toTopSpeed = accelerationTime(maxSpeed);
+        if (maxSpeed * toTopSpeed <= metres) {
+            return 2 * toTopSpeed + (metres - maxSpeed * toTopSpeed) / maxSpeed;
+        }
+        double low = 0;
+        double high = maxSpeed;
+        for (int i = 0; i < 50; i++) {
+            double peak = (low + high) / 2;
+            if (peak * accelerationTime(peak) < metres) {
+                low = peak;
+            } else {
+                high = peak;
+            }
+        }
+        return 2 * accelerationTime(high);
+    }
+}
@@ -0,0 +1,20 @@
+package org.designPatterns.Projects.Elevator.Components;
+
+public class Zone {
+    public String name;
+    public int lowestFloor;
+    public int highestFloor;
+
+    public Zone(String name, int lowestFloor, int highestFloor) {
+        if (lowestFloor > highestFloor) {
+            throw new IllegalArgumentException("Zone " + name + " has no floors: " + lowestFloor + "-" + highestFloor);
+        }
+        this.name = name;
+        this.lowestFloor = lowestFloor;
+        this.highestFloor = highestFloor;
+    }
+
+    public boolean contains(int floor) {
+        return floor >= lowestFloor && floor <= highestFloor;
+    }
+}
@@ -0,0 +1,78 @@
+package org.designPatterns.Projects.Elevator.Concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+/*
+Bounded multi-producer single-consumer queue of primitive longs.
+Producers claim a slot with a CAS on the tail and publish it by bumping the slot's sequence number, so they never
+take a lock and never allocate. Only one thread may call the consumer methods (drain, isEmpty).
+*/
+public class MpscLongQueue {
+    private final long[] values;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    public MpscLongQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        values = new long[size];
+        sequences = new AtomicLongArray(size);
+        mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    // Returns false when the queue is full
+    public boolean offer(long value) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    values[index] = value;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            // Another producer claimed this slot first, retry with the new tail
+        }
+    }
+
+    // Consumer only: true when no published value is waiting
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    // Consumer only: hands up to limit published values to the consumer in order and returns how many were taken
+    public int drain(LongConsumer consumer, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            long value = values[index];
+            sequences.set(index, head + values.length);
+            head++;
+            drained++;
+            consumer.accept(value);
+        }
+        return drained;
+    }
+
+    // Approximate number of values waiting, safe to call from any thread
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
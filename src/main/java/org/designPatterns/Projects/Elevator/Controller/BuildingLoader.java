@@ -0,0 +1,372 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+
+import org.designPatterns.Projects.Elevator.Algorithm.CallReassigner;
+import org.designPatterns.Projects.Elevator.Algorithm.DemandModel;
+import org.designPatterns.Projects.Elevator.Algorithm.DemandParking;
+import org.designPatterns.Projects.Elevator.Algorithm.DestinationDispatcher;
+import org.designPatterns.Projects.Elevator.Algorithm.ElevatorDispatcher;
+import org.designPatterns.Projects.Elevator.Algorithm.EtaDispatcher;
+import org.designPatterns.Projects.Elevator.Algorithm.ExternalDispatcher;
+import org.designPatterns.Projects.Elevator.Algorithm.InternalDispatcher;
+import org.designPatterns.Projects.Elevator.Algorithm.OddEvenDispatcher;
+import org.designPatterns.Projects.Elevator.Algorithm.ZonedDispatcher;
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Components.Floor;
+import org.designPatterns.Projects.Elevator.Components.InternalButtons;
+import org.designPatterns.Projects.Elevator.Components.TravelTimeModel;
+import org.designPatterns.Projects.Elevator.Components.Zone;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+Builds a Building, its floors, cars and controllers from a plain-text spec.
+Every loaded building gets its own controller list and dispatchers, so any number of them can live in one JVM.
+
+Spec format, one directive per line, '#' starts a comment:
+    building <name>
+    floors <lowest> <highest>
+    floorHeight <metres>                    (default 3.5)
+    dispatcher <name>                       (eta, broadcast, oddeven, destination or zoned; default eta)
+    scheduler <name>                        (look or legacy; default look)
+    parking <name>                          (none, lobby or demand; default none)
+    reassign <seconds> [gain=<seconds>]     (re-score open hall calls this often; default off)
+    zone <name> <lowest> <highest>
+    car <id> [zone=<name>] [serves=<floors>] [speed=<metres per second>] [start=<floor>] [capacity=<passengers>]
+             [bypass=<share of capacity>|none] [accel=<metres per second squared>] [jerk=<metres per second cubed>]
+             [dwell=<seconds>]
+    cars <count> [same options as car]      (ids continue after the highest id so far)
+<floors> is a comma separated list of floors and ranges, e.g. 0,21-40. A car serves its zone, or every floor when it
+has neither zone nor serves; with both, it belongs to the zone's bank and stops at the listed floors, e.g. an express
+car serving the lobby and its zone. A car loaded to its bypass share (default 0.8) stops answering hall calls.
+Travel times come from the car's speed, accel and jerk (default 2.5, 1.0 and 1.5) and the floor height; dwell is how
+long the doors stay open at a stop (default 3). Cars with the same figures share one TravelTimeModel.
+*/
+public class BuildingLoader {
+    public static final Map<String, Function<ControllerRegistry, ExternalDispatcher>> DISPATCHERS = new LinkedHashMap<>();
+
+    static {
+        DISPATCHERS.put("eta", EtaDispatcher::new);
+        DISPATCHERS.put("broadcast", ElevatorDispatcher::new);
+        DISPATCHERS.put("oddeven", OddEvenDispatcher::new);
+        DISPATCHERS.put("destination", DestinationDispatcher::new);
+        DISPATCHERS.put("zoned", ZonedDispatcher::new);
+    }
+
+    public static final Map<String, StopScheduler> SCHEDULERS = new LinkedHashMap<>();
+
+    static {
+        SCHEDULERS.put("look", LookScheduler.INSTANCE);
+        SCHEDULERS.put("legacy", LegacyScheduler.INSTANCE);
+    }
+
+    public static final List<String> PARKING = List.of("none", "lobby", "demand");
+
+    private BuildingLoader() {
+    }
+
+    public static Building load(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader, path.toString());
+        }
+    }
+
+    public static Building loadResource(String resource) throws IOException {
+        InputStream stream = BuildingLoader.class.getClassLoader().getResourceAsStream(resource);
+        if (stream == null) {
+            throw new IOException("Building spec not found on classpath: " + resource);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            return parse(reader, resource);
+        }
+    }
+
+    public static Building fromString(String spec) {
+        try {
+            return parse(new BufferedReader(new StringReader(spec)), "<spec>");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Building parse(BufferedReader reader, String source) throws IOException {
+        Spec spec = new Spec();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                spec.lineNumber = lineNumber;
+                spec.apply(line.split("\\s+"));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        // Zones may come before the floors directive, so their ranges are checked once the whole spec is read
+        for (Zone zone : spec.zones.values()) {
+            try {
+                spec.checkZone(zone);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(source + ":" + spec.zoneLines.get(zone.name) + ": " + e.getMessage(), e);
+            }
+        }
+        try {
+            return spec.build();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(source + ": " + e.getMessage(), e);
+        }
+    }
+
+    static class CarSpec {
+        int id;
+        String zone;
+        String serves;
+        double speed;
+        Double acceleration;
+        Double jerk;
+        Double dwell;
+        Integer start;
+        Integer capacity;
+        Double bypass;
+    }
+
+    static class Spec {
+        String name = "building";
+        int lowestFloor = -1;
+        int highestFloor = -1;
+        double floorHeight = 3.5;
+        String dispatcher = "eta";
+        String scheduler = "look";
+        String parking = "none";
+        double reassignPeriod;
+        Double reassignGain;
+        Map<String, Zone> zones = new LinkedHashMap<>();
+        // Spec line each zone was declared on, for errors found after the whole spec has been read
+        Map<String, Integer> zoneLines = new LinkedHashMap<>();
+        int lineNumber;
+        List<CarSpec> cars = new ArrayList<>();
+        int highestCarId;
+
+        void apply(String[] tokens) {
+            switch (tokens[0]) {
+                case "building" -> name = argument(tokens, 1);
+                case "floors" -> {
+                    lowestFloor = Integer.parseInt(argument(tokens, 1));
+                    highestFloor = Integer.parseInt(argument(tokens, 2));
+                    if (lowestFloor < 0 || highestFloor < lowestFloor) {
+                        throw new IllegalArgumentException("Invalid floor range " + lowestFloor + "-" + highestFloor);
+                    }
+                }
+                case "floorHeight" -> floorHeight = Double.parseDouble(argument(tokens, 1));
+                case "dispatcher" -> {
+                    dispatcher = argument(tokens, 1);
+                    if (!DISPATCHERS.containsKey(dispatcher)) {
+                        throw new IllegalArgumentException("Unknown dispatcher " + dispatcher + ", expected one of " + DISPATCHERS.keySet());
+                    }
+                }
+                case "scheduler" -> {
+                    scheduler = argument(tokens, 1);
+                    if (!SCHEDULERS.containsKey(scheduler)) {
+                        throw new IllegalArgumentException("Unknown scheduler " + scheduler + ", expected one of " + SCHEDULERS.keySet());
+                    }
+                }
+                case "parking" -> {
+                    parking = argument(tokens, 1);
+                    if (!PARKING.contains(parking)) {
+                        throw new IllegalArgumentException("Unknown parking policy " + parking + ", expected one of " + PARKING);
+                    }
+                }
+                case "reassign" -> {
+                    reassignPeriod = Double.parseDouble(argument(tokens, 1));
+                    if (reassignPeriod <= 0) {
+                        throw new IllegalArgumentException("Invalid reassignment period " + tokens[1]);
+                    }
+                    for (int i = 2; i < tokens.length; i++) {
+                        if (!tokens[i].startsWith("gain=")) {
+                            throw new IllegalArgumentException("Unknown reassign option " + tokens[i]);
+                        }
+                        reassignGain = Double.parseDouble(tokens[i].substring("gain=".length()));
+                    }
+                }
+                case "zone" -> {
+                    String zoneName = argument(tokens, 1);
+                    zones.put(zoneName, new Zone(zoneName, Integer.parseInt(argument(tokens, 2)), Integer.parseInt(argument(tokens, 3))));
+                    zoneLines.put(zoneName, lineNumber);
+                }
+                case "car" -> addCar(Integer.parseInt(argument(tokens, 1)), tokens);
+                case "cars" -> {
+                    int count = Integer.parseInt(argument(tokens, 1));
+                    for (int i = 0; i < count; i++) {
+                        addCar(highestCarId + 1, tokens);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown directive " + tokens[0]);
+            }
+        }
+
+        void addCar(int id, String[] tokens) {
+            CarSpec car = new CarSpec();
+            car.id = id;
+            for (int i = 2; i < tokens.length; i++) {
+                int equals = tokens[i].indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Expected key=value but found " + tokens[i]);
+                }
+                String value = tokens[i].substring(equals + 1);
+                switch (tokens[i].substring(0, equals)) {
+                    case "zone" -> car.zone = value;
+                    case "serves" -> car.serves = value;
+                    case "speed" -> car.speed = Double.parseDouble(value);
+                    case "accel" -> car.acceleration = Double.parseDouble(value);
+                    case "jerk" -> car.jerk = Double.parseDouble(value);
+                    case "dwell" -> car.dwell = Double.parseDouble(value);
+                    case "start" -> car.start = Integer.parseInt(value);
+                    case "capacity" -> car.capacity = Integer.parseInt(value);
+                    case "bypass" -> car.bypass = value.equals("none") ? Double.POSITIVE_INFINITY : Double.parseDouble(value);
+                    default -> throw new IllegalArgumentException("Unknown car option " + tokens[i]);
+                }
+            }
+            cars.add(car);
+            highestCarId = Math.max(highestCarId, id);
+        }
+
+        Building build() {
+            if (lowestFloor < 0) {
+                throw new IllegalArgumentException("Missing floors directive");
+            }
+            if (cars.isEmpty()) {
+                throw new IllegalArgumentException("Building " + name + " has no cars");
+            }
+
+            List<ElevatorController> controllers = new ArrayList<>();
+            ControllerRegistry registry = new ControllerRegistry();
+            InternalDispatcher internalDispatcher = new InternalDispatcher(registry);
+            ExternalDispatcher externalDispatcher = DISPATCHERS.get(dispatcher).apply(registry);
+            ParkingPolicy parkingPolicy = switch (parking) {
+                case "lobby" -> ParkingPolicy.LOBBY;
+                case "demand" -> {
+                    externalDispatcher.demand = new DemandModel(highestFloor + 1);
+                    yield new DemandParking(registry, externalDispatcher.demand);
+                }
+                default -> null;
+            };
+            if (reassignPeriod > 0) {
+                externalDispatcher.reassigner = new CallReassigner(externalDispatcher);
+                externalDispatcher.reassigner.period = Math.round(reassignPeriod * 1000);
+                if (reassignGain != null) {
+                    externalDispatcher.reassigner.minimumGain = Math.round(reassignGain * 1000);
+                }
+            }
+
+            List<Floor> floors = new ArrayList<>();
+            for (int floor = lowestFloor; floor <= highestFloor; floor++) {
+                floors.add(new Floor(floor, externalDispatcher));
+            }
+
+            for (CarSpec spec : cars) {
+                FloorStopSet served = servedFloors(spec);
+                ElevatorCar car = new ElevatorCar(spec.id, new InternalButtons(internalDispatcher, served));
+                car.currentFloor = spec.start != null ? spec.start : served.first();
+                if (!served.contains(car.currentFloor)) {
+                    throw new IllegalArgumentException("Car " + spec.id + " starts on floor " + car.currentFloor + " which it does not serve");
+                }
+                TravelTimeModel defaults = TravelTimeModel.DEFAULT;
+                car.travelTimeModel = TravelTimeModel.of(floorHeight,
+                        spec.speed > 0 ? spec.speed : defaults.maxSpeed,
+                        spec.acceleration != null ? spec.acceleration : defaults.acceleration,
+                        spec.jerk != null ? spec.jerk : defaults.jerk,
+                        spec.dwell != null ? Math.round(spec.dwell * 1000) : defaults.doorDwellTime,
+                        highestFloor + 1);
+                if (spec.capacity != null) {
+                    if (spec.capacity <= 0) {
+                        throw new IllegalArgumentException("Car " + spec.id + " has capacity " + spec.capacity);
+                    }
+                    car.capacity = spec.capacity;
+                }
+                if (spec.bypass != null) {
+                    car.bypassLoad = spec.bypass;
+                }
+                if (spec.zone != null) {
+                    car.zone = zones.get(spec.zone);
+                    if (car.zone == null) {
+                        throw new IllegalArgumentException("Car " + spec.id + " refers to unknown zone " + spec.zone);
+                    }
+                }
+                ElevatorController controller = new ElevatorController(car);
+                controller.scheduler = SCHEDULERS.get(scheduler);
+                controller.parking = parkingPolicy;
+                controllers.add(controller);
+            }
+
+            return new Building(name, floors, controllers, new ArrayList<>(zones.values()), registry,
+                    externalDispatcher, internalDispatcher);
+        }
+
+        void checkZone(Zone zone) {
+            if (lowestFloor >= 0 && (zone.lowestFloor < lowestFloor || zone.highestFloor > highestFloor)) {
+                throw new IllegalArgumentException("Zone " + zone.name + " covers floors " + zone.lowestFloor + "-"
+                        + zone.highestFloor + " outside the building's " + lowestFloor + "-" + highestFloor);
+            }
+        }
+
+        FloorStopSet servedFloors(CarSpec car) {
+            FloorStopSet served = new FloorStopSet(highestFloor + 1);
+            if (car.serves != null) {
+                for (String part : car.serves.split(",")) {
+                    int dash = part.indexOf('-');
+                    int from = Integer.parseInt(dash < 0 ? part : part.substring(0, dash));
+                    int to = dash < 0 ? from : Integer.parseInt(part.substring(dash + 1));
+                    addRange(served, from, to, car);
+                }
+            } else if (car.zone != null) {
+                Zone zone = zones.get(car.zone);
+                if (zone == null) {
+                    throw new IllegalArgumentException("Car " + car.id + " refers to unknown zone " + car.zone);
+                }
+                addRange(served, zone.lowestFloor, zone.highestFloor, car);
+            } else {
+                addRange(served, lowestFloor, highestFloor, car);
+            }
+            return served;
+        }
+
+        void addRange(FloorStopSet served, int from, int to, CarSpec car) {
+            if (from < lowestFloor || to > highestFloor || from > to) {
+                throw new IllegalArgumentException("Car " + car.id + " serves floors " + from + "-" + to
+                        + " outside the building's " + lowestFloor + "-" + highestFloor);
+            }
+            for (int floor = from; floor <= to; floor++) {
+                served.add(floor);
+            }
+        }
+    }
+
+    static String argument(String[] tokens, int index) {
+        if (index >= tokens.length) {
+            throw new IllegalArgumentException(tokens[0] + " expects " + index + " argument(s)");
+        }
+        return tokens[index];
+    }
+}
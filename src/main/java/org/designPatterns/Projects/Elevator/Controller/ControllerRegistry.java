@@ -0,0 +1,163 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+
+import org.designPatterns.Projects.Elevator.Algorithm.HallCallBoard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Central index of a building's controllers: car id -> controller and floor -> cars serving that floor, both kept in
+dense arrays so a lookup is one or two array loads no matter how large the fleet is.
+The arrays live in an immutable snapshot. Adding or removing a car or floor builds a new snapshot and publishes it
+through a volatile field, so dispatchers keep reading without locks while the building changes.
+The hall-call boards of the building's dispatchers are created here, sized to its floors, and grown with the snapshot
+when a floor above all the others is added.
+*/
+public class ControllerRegistry {
+    private static final ElevatorController[] NO_CARS = new ElevatorController[0];
+
+    static class Snapshot {
+        final ElevatorController[] byCarId;
+        final ElevatorController[] controllers;
+        final ElevatorController[][] servingByFloor;
+
+        Snapshot(ElevatorController[] byCarId, ElevatorController[] controllers, ElevatorController[][] servingByFloor) {
+            this.byCarId = byCarId;
+            this.controllers = controllers;
+            this.servingByFloor = servingByFloor;
+        }
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(NO_CARS, NO_CARS, new ElevatorController[0][]);
+    // Guarded by this
+    private final List<HallCallBoard> boards = new ArrayList<>();
+
+    // Controller of the car with the given id, or null if there is no such car
+    public ElevatorController controller(int carId) {
+        ElevatorController[] byCarId = snapshot.byCarId;
+        return carId >= 0 && carId < byCarId.length ? byCarId[carId] : null;
+    }
+
+    // Every registered controller; callers must not modify the array
+    public ElevatorController[] controllers() {
+        return snapshot.controllers;
+    }
+
+    // Cars that serve the floor, empty if the floor is not in service; callers must not modify the array
+    public ElevatorController[] carsServing(int floor) {
+        ElevatorController[][] servingByFloor = snapshot.servingByFloor;
+        if (floor < 0 || floor >= servingByFloor.length || servingByFloor[floor] == null) {
+            return NO_CARS;
+        }
+        return servingByFloor[floor];
+    }
+
+    public boolean hasFloor(int floor) {
+        ElevatorController[][] servingByFloor = snapshot.servingByFloor;
+        return floor >= 0 && floor < servingByFloor.length && servingByFloor[floor] != null;
+    }
+
+    // A hall-call board covering every floor, kept in step with the floors added later
+    public synchronized HallCallBoard newHallCallBoard() {
+        HallCallBoard board = new HallCallBoard(snapshot.servingByFloor.length);
+        boards.add(board);
+        return board;
+    }
+
+    public synchronized void addCar(ElevatorController controller) {
+        Snapshot current = snapshot;
+        int id = controller.elevatorCar.id;
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid car id: " + id);
+        }
+        if (id < current.byCarId.length && current.byCarId[id] != null) {
+            throw new IllegalArgumentException("Duplicate car id: " + id);
+        }
+
+        ElevatorController[] byCarId = Arrays.copyOf(current.byCarId, Math.max(current.byCarId.length, id + 1));
+        byCarId[id] = controller;
+        ElevatorController[] controllers = Arrays.copyOf(current.controllers, current.controllers.length + 1);
+        controllers[controllers.length - 1] = controller;
+
+        ElevatorController[][] servingByFloor = current.servingByFloor.clone();
+        for (int floor = 0; floor < servingByFloor.length; floor++) {
+            if (servingByFloor[floor] != null && controller.elevatorCar.serves(floor)) {
+                ElevatorController[] serving = Arrays.copyOf(servingByFloor[floor], servingByFloor[floor].length + 1);
+                serving[serving.length - 1] = controller;
+                servingByFloor[floor] = serving;
+            }
+        }
+        snapshot = new Snapshot(byCarId, controllers, servingByFloor);
+    }
+
+    // Returns the removed controller, or null if there was no such car
+    public synchronized ElevatorController removeCar(int carId) {
+        Snapshot current = snapshot;
+        ElevatorController controller = controller(carId);
+        if (controller == null) {
+            return null;
+        }
+
+        ElevatorController[] byCarId = current.byCarId.clone();
+        byCarId[carId] = null;
+        ElevatorController[][] servingByFloor = current.servingByFloor.clone();
+        for (int floor = 0; floor < servingByFloor.length; floor++) {
+            if (servingByFloor[floor] != null) {
+                servingByFloor[floor] = without(servingByFloor[floor], controller);
+            }
+        }
+        snapshot = new Snapshot(byCarId, without(current.controllers, controller), servingByFloor);
+        return controller;
+    }
+
+    public synchronized void addFloor(int floor) {
+        if (floor < 0) {
+            throw new IllegalArgumentException("Invalid floor: " + floor);
+        }
+        Snapshot current = snapshot;
+        ElevatorController[][] servingByFloor = Arrays.copyOf(current.servingByFloor,
+                Math.max(current.servingByFloor.length, floor + 1));
+        int count = 0;
+        ElevatorController[] serving = new ElevatorController[current.controllers.length];
+        for (ElevatorController controller : current.controllers) {
+            if (controller.elevatorCar.serves(floor)) {
+                serving[count++] = controller;
+            }
+        }
+        servingByFloor[floor] = Arrays.copyOf(serving, count);
+        // The boards cover the floor before any dispatcher can see a car serving it
+        for (HallCallBoard board : boards) {
+            board.resize(servingByFloor.length);
+        }
+        snapshot = new Snapshot(current.byCarId, current.controllers, servingByFloor);
+    }
+
+    public synchronized void removeFloor(int floor) {
+        Snapshot current = snapshot;
+        if (floor < 0 || floor >= current.servingByFloor.length) {
+            return;
+        }
+        ElevatorController[][] servingByFloor = current.servingByFloor.clone();
+        servingByFloor[floor] = null;
+        snapshot = new Snapshot(current.byCarId, current.controllers, servingByFloor);
+    }
+
+    private static ElevatorController[] without(ElevatorController[] controllers, ElevatorController removed) {
+        int index = -1;
+        for (int i = 0; i < controllers.length; i++) {
+            if (controllers[i] == removed) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) {
+            return controllers;
+        }
+        ElevatorController[] result = new ElevatorController[controllers.length - 1];
+        System.arraycopy(controllers, 0, result, 0, index);
+        System.arraycopy(controllers, index + 1, result, index, controllers.length - index - 1);
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+
+import org.designPatterns.Projects.Elevator.State.ElevatorState;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
+
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Runs one car as a long-lived actor on a virtual thread.
+The controller's inbox is the actor's mailbox: hall calls, car calls, park and shutdown commands all arrive there.
+When the mailbox and the stop sets are empty the actor parks without using any CPU, and the next publish unparks it.
+After a shutdown the actor serves what it has, then retires so other cars stop handing it calls; one that arrived
+before the retirement took is served first.
+*/
+public class ElevatorActor implements Runnable {
+    public final ElevatorController controller;
+    Thread thread;
+
+    public ElevatorActor(ElevatorController controller) {
+        this.controller = controller;
+    }
+
+    public ElevatorActor start() {
+        thread = Thread.ofVirtual().name("elevator-" + controller.elevatorCar.id).start(this);
+        return this;
+    }
+
+    @Override
+    public void run() {
+        controller.waiter = Thread.currentThread();
+        try {
+            boolean busy = false;
+            while (true) {
+                if (controller.serveNextStop()) {
+                    busy = true;
+                    continue;
+                }
+                if (busy) {
+                    busy = false;
+                    controller.elevatorCar.elevatorState = ElevatorState.IDLE;
+                    Telemetry.publish(TelemetryEventType.IDLE, controller.elevatorCar.id, controller.elevatorCar.currentFloor, null);
+                }
+                if (controller.shutdownRequested) {
+                    if (controller.retire()) {
+                        return;
+                    }
+                    continue;
+                }
+                awaitRequests();
+            }
+        } finally {
+            controller.waiter = null;
+        }
+    }
+
+    private void awaitRequests() {
+        // Announce the wait before the last look at the inbox, so a request published in between still unparks us
+        controller.waiting = true;
+        if (controller.inboxEmpty()) {
+            LockSupport.park(this);
+        }
+        controller.waiting = false;
+    }
+
+    public void shutdown() {
+        controller.shutdown();
+    }
+
+    public void join() throws InterruptedException {
+        thread.join();
+    }
+}
@@ -1,82 +1,423 @@
 package org.designPatterns.Projects.Elevator.Controller;
 
 
+import org.designPatterns.Projects.Elevator.Algorithm.ExternalDispatcher;
 import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Concurrency.MpscLongQueue;
+import org.designPatterns.Projects.Elevator.Journal.RequestJournal;
+import org.designPatterns.Projects.Elevator.Metrics.CarMetrics;
 import org.designPatterns.Projects.Elevator.State.Direction;
+import org.designPatterns.Projects.Elevator.State.ElevatorState;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
 
+/*
+Requests can be submitted from any thread: they are encoded into a long and published to a lock-free inbox.
+Nobody ever waits for room in it. A request that finds the inbox full goes to an unbounded overflow queue instead, and
+while the overflow holds anything later requests queue up behind it, so each sender's requests still arrive in order.
+The overflow is deliberately not bounded: a bound would have to drop a rider's call or make its sender wait. It only
+grows while the car's thread is not draining, each request in it is boxed, and every request that goes there is counted
+in the car's metrics as an overflowed request, so a car whose inbox is too small for its load shows up there.
+A car handing a call to another car, or the reassigner moving calls around, therefore never waits on a consumer that
+may itself be waiting, or that is the very thread publishing, as in the simulation.
+Those moves go through acceptHandOff, which refuses a call once the car's actor has retired: a request published
+after the actor's last look at its inbox would otherwise sit there with no thread left to wake.
+The stop sets are only changed by the thread that drives the car (controlElevator or the simulation), which
+drains the inbox in batches before deciding where to go next. Dispatchers and the CallReassigner do read them from
+their own threads, through the schedulers' estimateArrival and the destination dispatcher's stop cost. Those reads are
+deliberately unsynchronized estimates: they may see a set halfway through a batch, which at worst gives a call to a
+slightly worse car. The sets are sized for the car's floors up front and never replace their arrays, so such a read
+cannot fail.
+*/
 public class ElevatorController {
-    public PriorityQueue<Integer> upMinPQ;
-    public PriorityQueue<Integer> downMaxPQ;
-    public Queue<Request> stagingQueue;
+    static final int EXTERNAL_REQUEST = 1;
+    static final int INTERNAL_REQUEST = 2;
+    static final int PARK = 3;
+    static final int SHUTDOWN = 4;
+    static final int WITHDRAW = 5;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    public FloorStopSet upMinPQ;
+    public FloorStopSet downMaxPQ;
+    public FloorStopSet stagedUp;
+    public FloorStopSet stagedDown;
+    // Floors riders asked for; every other stop is a hall call, which a full car passes over
+    public FloorStopSet carCalls;
     public ElevatorCar elevatorCar;
+    public StopScheduler scheduler = LookScheduler.INSTANCE;
+    public final CarMetrics metrics;
+    // Set by RequestJournal.open; records every change to the stop sets and the car's position
+    public RequestJournal journal;
+    // Takes over the hall calls this car bypasses while full and has its hall buttons cleared when the car answers
+    // them; null keeps bypassed calls for the car's next sweep
+    public ExternalDispatcher dispatcher;
+    // Where the car waits when it runs out of work; null leaves it wherever it stopped
+    public ParkingPolicy parking;
+    // Floor the car is parked at or on its way to park at, -1 while it is serving calls
+    public volatile int parkedFloor = -1;
+    final MpscLongQueue inbox = new MpscLongQueue(256);
+    // Requests that did not fit in the inbox; boxed, but only used while the inbox is full
+    final ConcurrentLinkedQueue<Long> overflow = new ConcurrentLinkedQueue<>();
+    private final LongConsumer requestHandler = this::applyRequest;
+    // Passengers destination dispatch has told to board this car, by floor * 2 + direction; the car's booked total
+    // drops by a floor's count once the car has answered the call there
+    final AtomicIntegerArray bookings;
+
+    // Set by an ElevatorActor so producers can wake it after publishing
+    volatile Thread waiter;
+    volatile boolean waiting;
+    int parkFloor = -1;
+    boolean shutdownRequested;
+    // Set once the actor has stopped for good; calls moved from other cars are refused from then on
+    private volatile boolean retired;
+    // Calls other cars or the reassigner are moving to this car right now
+    private final AtomicInteger handOffsInFlight = new AtomicInteger();
 
     public ElevatorController(ElevatorCar elevatorCar) {
         this.elevatorCar = elevatorCar;
-        upMinPQ = new PriorityQueue<>();
-        downMaxPQ = new PriorityQueue<>((a, b) -> b - a);
-        stagingQueue = new LinkedList<>();
-        System.out.println("ElevatorController initialized for elevator: " + elevatorCar.id);
+        // Wide enough for every floor the car serves, so adding a stop never has to grow a set
+        int floors = elevatorCar.servedFloors().last() + 1;
+        upMinPQ = new FloorStopSet(floors);
+        downMaxPQ = new FloorStopSet(floors);
+        stagedUp = new FloorStopSet(floors);
+        stagedDown = new FloorStopSet(floors);
+        carCalls = new FloorStopSet(floors);
+        metrics = new CarMetrics(elevatorCar.id, floors);
+        bookings = new AtomicIntegerArray(floors * 2);
     }
 
     public void submitInternalRequest(int floor, Direction direction) {
-        System.out.println("Internal request submitted for floor: " + floor);
-        Request newRequest = new Request(floor, direction);
-        addToQueue(newRequest);
+        publish(encode(INTERNAL_REQUEST, floor, direction));
     }
 
     public void submitExternalRequest(int floor, Direction direction) {
-        Request newRequest = new Request(floor, direction);
-        if ((direction == Direction.UP && floor < elevatorCar.currentFloor && elevatorCar.elevatorDirection == Direction.UP) ||
-                (direction == Direction.DOWN && floor > elevatorCar.currentFloor && elevatorCar.elevatorDirection == Direction.DOWN)) {
-            System.out.println("Request staged for floor: " + floor + " direction: " + direction);
-            stagingQueue.offer(newRequest);
-        } else {
-            addToQueue(newRequest);
+        publish(encode(EXTERNAL_REQUEST, floor, direction));
+    }
+
+    static long encode(int kind, int floor, Direction direction) {
+        return ((long) kind << 40) | ((long) direction.ordinal() << 32) | (floor & 0xFFFFFFFFL);
+    }
+
+    // The dispatcher has given this hall call to another car. Sent after the other car has it, so the call is never
+    // held by nobody; a floor a rider asked for stays a stop.
+    public void withdrawHallCall(int floor, Direction direction) {
+        publish(encode(WITHDRAW, floor, direction));
+    }
+
+    // Gives the car a hall call moved from another car, by a hand-off or the reassigner. Returns false when the car's
+    // actor has retired and would never answer it, so the call stays with the car it came from.
+    public boolean acceptHandOff(int floor, Direction direction) {
+        handOffsInFlight.incrementAndGet();
+        try {
+            if (retired) {
+                return false;
+            }
+            submitExternalRequest(floor, direction);
+            return true;
+        } finally {
+            handOffsInFlight.decrementAndGet();
+        }
+    }
+
+    // Actor side, once it has been asked to shut down and has run out of work: stops taking calls from other cars and
+    // returns true, unless one got into the inbox first, which the actor then serves before trying again
+    boolean retire() {
+        retired = true;
+        // A hand-off that got past the check before the flag was set is published by the time the count drops
+        while (handOffsInFlight.get() != 0) {
+            Thread.onSpinWait();
+        }
+        if (inboxEmpty()) {
+            return true;
+        }
+        retired = false;
+        return false;
+    }
+
+    // A passenger waiting at origin has been told to board this car; any thread
+    public void book(int origin, Direction direction) {
+        bookings.incrementAndGet(origin * 2 + direction.ordinal());
+        elevatorCar.booked.incrementAndGet();
+    }
+
+    // Sends an idle car to wait at the given floor once it has no other work
+    public void park(int floor) {
+        publish(encode(PARK, floor, Direction.UP));
+    }
+
+    // Asks the driving actor to finish its pending stops and then stop
+    public void shutdown() {
+        publish(encode(SHUTDOWN, 0, Direction.UP));
+    }
+
+    void publish(long request) {
+        if (!overflow.isEmpty() || !inbox.offer(request)) {
+            overflow.offer(request);
+            metrics.overflowedRequest();
         }
+        if (waiting) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    // Consumer side: moves every request published so far into the stop sets, returns how many were applied
+    public int drainInbox() {
+        int total = 0;
+        int drained;
+        while ((drained = inbox.drain(requestHandler, inbox.capacity())) > 0) {
+            total += drained;
+        }
+        // Overflowed requests are newer than everything their senders put in the inbox, so they wait until no request
+        // is left there, not even one a producer has claimed a slot for and not yet written. Only those counted before
+        // that check may go: a sender finding the overflow emptied meanwhile puts its next request in the inbox, and
+        // whatever it overflows after that must not overtake it.
+        int overflowed = overflow.isEmpty() ? 0 : overflow.size();
+        if (overflowed > 0 && inbox.size() == 0) {
+            for (int i = 0; i < overflowed; i++) {
+                applyRequest(overflow.poll());
+                total++;
+            }
+        }
+        if (total > 0) {
+            recordQueueDepth();
+        }
+        return total;
+    }
+
+    // True when the inbox has no room left, so a new request would go to the overflow; approximate, any thread
+    public boolean inboxFull() {
+        return inbox.size() >= inbox.capacity() || !overflow.isEmpty();
     }
 
-    private void addToQueue(Request request) {
-        if (request.direction == Direction.UP) {
-            if (!upMinPQ.contains(request.floor)) {
-                upMinPQ.offer(request.floor);
-                System.out.println("Request added to upMinPQ: Floor " + request.floor);
+    // Consumer side: true when no request is waiting to be drained
+    boolean inboxEmpty() {
+        return inbox.isEmpty() && overflow.isEmpty();
+    }
+
+    void applyRequest(long request) {
+        int kind = (int) (request >>> 40);
+        Direction direction = DIRECTIONS[(int) (request >>> 32) & 0xFF];
+        int floor = (int) request;
+        switch (kind) {
+            case INTERNAL_REQUEST -> {
+                metrics.carCall(floor);
+                if (carCalls.add(floor) && journal != null) {
+                    journal.stopAdded(RequestJournal.CAR_CALL, floor);
+                }
+                addToQueue(floor, direction);
+            }
+            case EXTERNAL_REQUEST -> {
+                metrics.hallCall(floor, direction);
+                acceptExternalRequest(floor, direction);
+            }
+            case WITHDRAW -> withdraw(floor, direction);
+            case PARK -> parkFloor = floor;
+            case SHUTDOWN -> shutdownRequested = true;
+        }
+    }
+
+    private void withdraw(int floor, Direction direction) {
+        if (carCalls.contains(floor)) {
+            return;
+        }
+        boolean removed = (direction == Direction.UP ? upMinPQ : downMaxPQ).remove(floor);
+        removed |= (direction == Direction.UP ? stagedUp : stagedDown).remove(floor);
+        if (removed) {
+            metrics.reassigned(floor, direction);
+            if (journal != null) {
+                journal.stopWithdrawn(floor);
+            }
+        }
+    }
+
+    private void acceptExternalRequest(int floor, Direction direction) {
+        if (isBehindCar(floor, direction)) {
+            Telemetry.publish(TelemetryEventType.REQUEST_STAGED, elevatorCar.id, floor, direction);
+            if ((direction == Direction.UP ? stagedUp : stagedDown).add(floor)) {
+                metrics.stagedRequest();
+                if (journal != null) {
+                    journal.stopAdded(direction == Direction.UP ? RequestJournal.STAGED_UP : RequestJournal.STAGED_DOWN, floor);
+                }
+            } else {
+                metrics.duplicateRequest();
             }
         } else {
-            if (!downMaxPQ.contains(request.floor)) {
-                downMaxPQ.offer(request.floor);
-                System.out.println("Request added to downMaxPQ: Floor " + request.floor);
+            addToQueue(floor, direction);
+        }
+    }
+
+    // A call the car has already passed in its direction of travel has to wait for the next sweep
+    public boolean isBehindCar(int floor, Direction direction) {
+        return (direction == Direction.UP && floor < elevatorCar.currentFloor && elevatorCar.elevatorDirection == Direction.UP) ||
+                (direction == Direction.DOWN && floor > elevatorCar.currentFloor && elevatorCar.elevatorDirection == Direction.DOWN);
+    }
+
+    private void addToQueue(int floor, Direction direction) {
+        if ((direction == Direction.UP ? upMinPQ : downMaxPQ).add(floor)) {
+            Telemetry.publish(TelemetryEventType.STOP_ADDED, elevatorCar.id, floor, direction);
+            if (journal != null) {
+                journal.stopAdded(direction == Direction.UP ? RequestJournal.UP : RequestJournal.DOWN, floor);
             }
+        } else {
+            metrics.duplicateRequest();
         }
     }
 
     public void processStagedRequests() {
-        System.out.println("Processing staged requests...");
-        while (!stagingQueue.isEmpty()) {
-            Request request = stagingQueue.poll();
-            addToQueue(request);
+        if (stagedCount() > 0) {
+            Telemetry.publish(TelemetryEventType.STAGED_MERGED, elevatorCar.id, elevatorCar.currentFloor, elevatorCar.elevatorDirection);
+            metrics.stagedMerge();
+            if (journal != null) {
+                journal.stagedMerged();
+            }
         }
+        upMinPQ.drainFrom(stagedUp);
+        downMaxPQ.drainFrom(stagedDown);
     }
 
-    public void controlElevator() {
-        while (!upMinPQ.isEmpty() || !downMaxPQ.isEmpty() || !stagingQueue.isEmpty()) {
-            if (upMinPQ.isEmpty() && downMaxPQ.isEmpty()) {
-                processStagedRequests();
+    public int stagedCount() {
+        return stagedUp.size() + stagedDown.size();
+    }
+
+    public boolean hasPendingRequests() {
+        drainInbox();
+        return !upMinPQ.isEmpty() || !downMaxPQ.isEmpty() || !stagedUp.isEmpty() || !stagedDown.isEmpty();
+    }
+
+    // Removes and returns the next floor to serve, or -1 when there is nothing left to do
+    public int pollNextStop() {
+        drainInbox();
+        if (elevatorCar.isBypassing()) {
+            bypassHallCalls();
+        }
+        int stop = scheduler.nextStop(this);
+        if (stop != -1) {
+            carCalls.remove(stop);
+            if (journal != null) {
+                journal.stopServed(stop);
+            }
+            if (parkedFloor != -1) {
+                parkedFloor = -1;
             }
+        }
+        recordQueueDepth();
+        return stop;
+    }
+
+    // The car is too full to pick anyone up: every pending stop no rider asked for goes to another car through the
+    // dispatcher, or waits for this car's next sweep when no other car can take it
+    private void bypassHallCalls() {
+        bypass(upMinPQ, stagedUp, Direction.UP);
+        bypass(downMaxPQ, stagedDown, Direction.DOWN);
+    }
 
-            if (!upMinPQ.isEmpty()) {
-                int nextFloor = upMinPQ.poll();
-                elevatorCar.moveElevator(Direction.UP, nextFloor);
-            } else if (!downMaxPQ.isEmpty()) {
-                int nextFloor = downMaxPQ.poll();
-                elevatorCar.moveElevator(Direction.DOWN, nextFloor);
+    private void bypass(FloorStopSet stops, FloorStopSet staged, Direction direction) {
+        for (int floor = stops.first(); floor != -1; floor = stops.nextAtOrAbove(floor + 1)) {
+            if (carCalls.contains(floor)) {
+                continue;
+            }
+            stops.remove(floor);
+            boolean handedOff = dispatcher != null && dispatcher.handOff(floor, direction, this);
+            metrics.bypassed(floor, direction, handedOff);
+            // The stop leaves the active set either way; one kept for the next sweep is staged again
+            if (journal != null) {
+                journal.stopServed(floor);
+            }
+            if (!handedOff && staged.add(floor) && journal != null) {
+                journal.stopAdded(direction == Direction.UP ? RequestJournal.STAGED_UP : RequestJournal.STAGED_DOWN, floor);
             }
         }
-        System.out.println("All requests processed. Elevator is idle.");
     }
-}
 
+    // Called once the car has run out of work: returns the floor it should move to and wait at, or -1 to stay put.
+    // The car is asked once per idle period; after that it counts as parked until it serves another stop.
+    public int parkingMove() {
+        if (parking == null || parkedFloor != -1) {
+            return -1;
+        }
+        int floor = parking.parkingFloor(this);
+        if (floor == -1 || floor == elevatorCar.currentFloor || !elevatorCar.serves(floor)) {
+            parkedFloor = elevatorCar.currentFloor;
+            return -1;
+        }
+        parkedFloor = floor;
+        return floor;
+    }
+
+    // Called by whoever drives the car once it has stopped at floor, so the metrics can time the calls it answered
+    // and the hall buttons it answered go dark. A direction counts as answered when the car has no call left pending
+    // there in it; the dispatcher then only turns the button off if the call was given to this car, so a car stopping
+    // for its riders, or serving the other direction, leaves another car's call lit.
+    public void arrivedAt(int floor) {
+        if (journal != null) {
+            journal.position(floor, elevatorCar.elevatorDirection);
+        }
+        // A call given to this car while it was on its way is pending too, even if still in the inbox
+        drainInbox();
+        boolean upPending = upMinPQ.contains(floor) || stagedUp.contains(floor);
+        boolean downPending = downMaxPQ.contains(floor) || stagedDown.contains(floor);
+        if (dispatcher != null) {
+            if (!upPending) {
+                dispatcher.answered(this, floor, Direction.UP);
+            }
+            if (!downPending) {
+                dispatcher.answered(this, floor, Direction.DOWN);
+            }
+        }
+        // Whoever was booked onto the answered calls has boarded or been left behind and books again
+        if (!upPending) {
+            releaseBookings(floor, Direction.UP);
+        }
+        if (!downPending) {
+            releaseBookings(floor, Direction.DOWN);
+        }
+        metrics.arrived(floor, upPending, downPending);
+    }
+
+    private void releaseBookings(int floor, Direction direction) {
+        int cell = floor * 2 + direction.ordinal();
+        if (cell < bookings.length() && bookings.get(cell) != 0) {
+            elevatorCar.booked.addAndGet(-bookings.getAndSet(cell, 0));
+        }
+    }
+
+    private void recordQueueDepth() {
+        metrics.queueDepth(upMinPQ.size(), downMaxPQ.size(), stagedCount());
+    }
+
+    // Moves the car to its next stop, or to a parking floor when there is nothing else to do.
+    // Returns false when the car has nowhere to go.
+    public boolean serveNextStop() {
+        int nextFloor = pollNextStop();
+        if (nextFloor == -1 && parkFloor != -1) {
+            nextFloor = parkFloor;
+            parkedFloor = parkFloor;
+            parkFloor = -1;
+        }
+        if (nextFloor == -1) {
+            nextFloor = parkingMove();
+        }
+        if (nextFloor == -1) {
+            return false;
+        }
+        Direction direction = nextFloor >= elevatorCar.currentFloor ? Direction.UP : Direction.DOWN;
+        elevatorCar.elevatorState = ElevatorState.MOVING;
+        elevatorCar.moveElevator(direction, nextFloor);
+        arrivedAt(nextFloor);
+        return true;
+    }
+
+    public void controlElevator() {
+        while (serveNextStop()) {
+            // Keep serving until the queues run dry
+        }
+        elevatorCar.elevatorState = ElevatorState.IDLE;
+        Telemetry.publish(TelemetryEventType.IDLE, elevatorCar.id, elevatorCar.currentFloor, null);
+    }
+}
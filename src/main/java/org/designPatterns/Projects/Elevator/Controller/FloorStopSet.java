@@ -0,0 +1,176 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+import java.util.Arrays;
+
+/*
+Set of floors a car has to stop at, stored as one bit per floor in an array of longs.
+Insert, remove and dedup are O(1) and never allocate once the set is wide enough for the building,
+and the next stop above or below a floor is found with a word scan instead of a heap walk.
+Not thread-safe. Reads from other threads see some recent state, and only stay in bounds while the set is never
+given a floor beyond the size it was created with.
+*/
+public class FloorStopSet {
+    private long[] words;
+    private int size;
+
+    public FloorStopSet() {
+        this(64);
+    }
+
+    public FloorStopSet(int floors) {
+        words = new long[Math.max(1, (floors + 63) >>> 6)];
+    }
+
+    // Returns false if the floor was already in the set
+    public boolean add(int floor) {
+        checkFloor(floor);
+        int index = floor >>> 6;
+        if (index >= words.length) {
+            words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+        }
+        long bit = 1L << floor;
+        if ((words[index] & bit) != 0) {
+            return false;
+        }
+        words[index] |= bit;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int floor) {
+        checkFloor(floor);
+        int index = floor >>> 6;
+        if (index >= words.length) {
+            return false;
+        }
+        long bit = 1L << floor;
+        if ((words[index] & bit) == 0) {
+            return false;
+        }
+        words[index] &= ~bit;
+        size--;
+        return true;
+    }
+
+    public boolean contains(int floor) {
+        int index = floor >>> 6;
+        return floor >= 0 && index < words.length && (words[index] & (1L << floor)) != 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0L);
+        size = 0;
+    }
+
+    // Lowest floor in the set, or -1 if empty
+    public int first() {
+        return nextAtOrAbove(0);
+    }
+
+    // Highest floor in the set, or -1 if empty
+    public int last() {
+        return nextAtOrBelow(words.length * 64 - 1);
+    }
+
+    public int pollFirst() {
+        int floor = first();
+        if (floor != -1) {
+            remove(floor);
+        }
+        return floor;
+    }
+
+    public int pollLast() {
+        int floor = last();
+        if (floor != -1) {
+            remove(floor);
+        }
+        return floor;
+    }
+
+    // Smallest floor in the set that is >= floor, or -1 if there is none
+    public int nextAtOrAbove(int floor) {
+        if (floor < 0) {
+            floor = 0;
+        }
+        int index = floor >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << floor);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    // Largest floor in the set that is <= floor, or -1 if there is none
+    public int nextAtOrBelow(int floor) {
+        if (floor < 0) {
+            return -1;
+        }
+        int index = floor >>> 6;
+        if (index >= words.length) {
+            index = words.length - 1;
+            floor = words.length * 64 - 1;
+        }
+        long word = words[index] & (-1L >>> (63 - (floor & 63)));
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (index-- == 0) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    // Number of floors in the set strictly below floor
+    public int countBelow(int floor) {
+        if (floor <= 0) {
+            return 0;
+        }
+        int index = Math.min(floor >>> 6, words.length);
+        int count = 0;
+        for (int i = 0; i < index; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        if (index < words.length) {
+            count += Long.bitCount(words[index] & ((1L << floor) - 1));
+        }
+        return count;
+    }
+
+    // Number of floors in the set strictly above floor
+    public int countAbove(int floor) {
+        return size - countBelow(floor) - (contains(floor) ? 1 : 0);
+    }
+
+    // Moves every floor of other into this set and empties other
+    public void drainFrom(FloorStopSet other) {
+        for (int floor = other.first(); floor != -1; floor = other.nextAtOrAbove(floor + 1)) {
+            add(floor);
+        }
+        other.clear();
+    }
+
+    private static void checkFloor(int floor) {
+        if (floor < 0) {
+            throw new IllegalArgumentException("Invalid floor: " + floor);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+/*
+The original order: every up stop in ascending order, then every down stop in descending order, wherever the car
+happens to be. Calls staged behind the car wait until both sets are empty.
+*/
+public class LegacyScheduler implements StopScheduler {
+    public static final LegacyScheduler INSTANCE = new LegacyScheduler();
+
+    @Override
+    public int nextStop(ElevatorController controller) {
+        if (controller.upMinPQ.isEmpty() && controller.downMaxPQ.isEmpty()) {
+            controller.processStagedRequests();
+        }
+
+        if (!controller.upMinPQ.isEmpty()) {
+            return controller.upMinPQ.pollFirst();
+        } else if (!controller.downMaxPQ.isEmpty()) {
+            return controller.downMaxPQ.pollLast();
+        }
+        return -1;
+    }
+
+    @Override
+    public long estimateArrival(ElevatorController controller, int floor, Direction direction) {
+        ElevatorCar car = controller.elevatorCar;
+        int position = car.currentFloor;
+
+        FloorStopSet up = controller.upMinPQ;
+        FloorStopSet down = controller.downMaxPQ;
+        int upCount = up.size(), upMin = up.first(), upMax = up.last();
+        int downCount = down.size(), downMin = down.first(), downMax = down.last();
+
+        // Length of the up sweep and where it leaves the car
+        long upDistance = upCount == 0 ? 0 : Math.abs(position - upMin) + (upMax - upMin);
+        int upEnd = upCount == 0 ? position : upMax;
+
+        long distance;
+        long stops;
+        if (controller.isBehindCar(floor, direction)) {
+            // Served only once both sweeps and the earlier staged calls are done
+            long downDistance = downCount == 0 ? 0 : Math.abs(upEnd - downMax) + (downMax - downMin);
+            int routeEnd = downCount == 0 ? upEnd : downMin;
+            distance = upDistance + downDistance + Math.abs(routeEnd - floor);
+            stops = upCount + downCount + controller.stagedCount();
+        } else if (direction == Direction.UP) {
+            int first = upCount == 0 ? floor : Math.min(upMin, floor);
+            distance = Math.abs(position - first) + (floor - first);
+            stops = up.countBelow(floor);
+        } else {
+            int top = Math.max(downMax, floor);
+            distance = upDistance + Math.abs(upEnd - top) + (top - floor);
+            stops = upCount + down.countAbove(floor);
+        }
+        return car.travelTimeModel.routeTime(distance, stops) + stops * car.travelTimeModel.doorDwellTime;
+    }
+}
@@ -0,0 +1,128 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+/*
+LOOK: keep going in the current direction while there is anything to serve ahead, then reverse.
+Going up the car stops at up calls and up car calls above it, and rides on to the highest down call if that is
+further up; going down is the mirror image. Every reversal merges the staged calls into the stop sets, because
+whatever was behind the car is ahead of it now.
+A call waits at most for the rest of the current sweep and one full sweep back, so the worst-case wait is bounded
+by two end-to-end trips no matter how busy the car is.
+*/
+public class LookScheduler implements StopScheduler {
+    public static final LookScheduler INSTANCE = new LookScheduler();
+
+    @Override
+    public int nextStop(ElevatorController controller) {
+        ElevatorCar car = controller.elevatorCar;
+        int position = car.currentFloor;
+        Direction direction = car.elevatorDirection == Direction.DOWN ? Direction.DOWN : Direction.UP;
+
+        int stop = look(controller, position, direction);
+        if (stop != -1) {
+            return stop;
+        }
+        // Nothing ahead: reverse, with the staged calls merged in. A full car's bypass stages calls ahead of it as well,
+        // so after the reverse the first direction gets one more look; a car that found no stop here would sleep
+        // with those calls still pending.
+        controller.processStagedRequests();
+        stop = look(controller, position, direction == Direction.UP ? Direction.DOWN : Direction.UP);
+        return stop != -1 ? stop : look(controller, position, direction);
+    }
+
+    private int look(ElevatorController controller, int position, Direction direction) {
+        return direction == Direction.UP ? nextGoingUp(controller, position) : nextGoingDown(controller, position);
+    }
+
+    private int nextGoingUp(ElevatorController controller, int position) {
+        int stop = controller.upMinPQ.nextAtOrAbove(position);
+        if (stop != -1) {
+            controller.upMinPQ.remove(stop);
+            return stop;
+        }
+        // Nothing more to serve on the way up: turn at the highest down call above the car
+        stop = controller.downMaxPQ.last();
+        if (stop > position) {
+            controller.downMaxPQ.remove(stop);
+            return stop;
+        }
+        return -1;
+    }
+
+    private int nextGoingDown(ElevatorController controller, int position) {
+        int stop = controller.downMaxPQ.nextAtOrBelow(position);
+        if (stop != -1) {
+            controller.downMaxPQ.remove(stop);
+            return stop;
+        }
+        stop = controller.upMinPQ.first();
+        if (stop != -1 && stop < position) {
+            controller.upMinPQ.remove(stop);
+            return stop;
+        }
+        return -1;
+    }
+
+    @Override
+    public long estimateArrival(ElevatorController controller, int floor, Direction direction) {
+        ElevatorCar car = controller.elevatorCar;
+        int position = car.currentFloor;
+        FloorStopSet up = controller.upMinPQ;
+        FloorStopSet down = controller.downMaxPQ;
+        int staged = controller.stagedCount();
+
+        long distance;
+        long stops;
+        if (car.elevatorDirection != Direction.DOWN) {
+            int upAhead = up.size() - up.countBelow(position);
+            if (direction == Direction.UP && floor >= position) {
+                distance = floor - position;
+                stops = up.countBelow(floor) - up.countBelow(position);
+            } else {
+                int top = Math.max(position, Math.max(up.last(), down.last()));
+                if (direction == Direction.DOWN) {
+                    top = Math.max(top, floor);
+                    distance = (top - position) + (top - floor);
+                    stops = upAhead + down.countAbove(floor);
+                } else {
+                    int bottom = Math.min(floor, lowest(up, down));
+                    distance = (top - position) + (top - bottom) + (floor - bottom);
+                    stops = upAhead + down.size() + up.countBelow(floor) + staged;
+                }
+            }
+        } else {
+            int downAhead = down.size() - down.countAbove(position);
+            if (direction == Direction.DOWN && floor <= position) {
+                distance = position - floor;
+                stops = down.countAbove(floor) - down.countAbove(position);
+            } else {
+                int bottom = Math.min(position, lowest(up, down));
+                if (direction == Direction.UP) {
+                    bottom = Math.min(bottom, floor);
+                    distance = (position - bottom) + (floor - bottom);
+                    stops = downAhead + up.countBelow(floor);
+                } else {
+                    int top = Math.max(floor, Math.max(up.last(), down.last()));
+                    distance = (position - bottom) + (top - bottom) + (top - floor);
+                    stops = downAhead + up.size() + down.countAbove(floor) + staged;
+                }
+            }
+        }
+        return car.travelTimeModel.routeTime(distance, stops) + stops * car.travelTimeModel.doorDwellTime;
+    }
+
+    // Lowest stop in either set, Integer.MAX_VALUE if both are empty
+    private static int lowest(FloorStopSet up, FloorStopSet down) {
+        int lowest = Integer.MAX_VALUE;
+        if (!up.isEmpty()) {
+            lowest = up.first();
+        }
+        if (!down.isEmpty()) {
+            lowest = Math.min(lowest, down.first());
+        }
+        return lowest;
+    }
+}
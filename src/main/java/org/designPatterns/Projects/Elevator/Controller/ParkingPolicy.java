@@ -0,0 +1,15 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+
+/*
+Decides where a car waits once it has run out of work.
+The controller asks once per idle period, from the thread that drives the car; a car that has parked is not asked
+again until it has served another stop.
+*/
+public interface ParkingPolicy {
+    // Floor the idle car should move to, or -1 to stay where it is
+    int parkingFloor(ElevatorController controller);
+
+    // Classic home-floor parking: every idle car goes back to the lowest floor it serves
+    ParkingPolicy LOBBY = controller -> controller.elevatorCar.servedFloors().first();
+}
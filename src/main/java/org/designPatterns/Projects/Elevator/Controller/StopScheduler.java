@@ -0,0 +1,17 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+/*
+Decides the order in which a controller serves its stops.
+The controller owns the stop sets and calls nextStop from the thread that drives the car; dispatchers call
+estimateArrival from any thread to score a hall call against the route the scheduler will actually take.
+*/
+public interface StopScheduler {
+    // Removes and returns the next floor to serve, or -1 when there is nothing left to do
+    int nextStop(ElevatorController controller);
+
+    // Time until the car would open its doors at floor for a call in the given direction, by the car's TravelTimeModel
+    long estimateArrival(ElevatorController controller, int floor, Direction direction);
+}
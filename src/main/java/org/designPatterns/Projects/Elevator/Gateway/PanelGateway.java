@@ -0,0 +1,238 @@
+package org.designPatterns.Projects.Elevator.Gateway;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Components.Floor;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.function.Consumer;
+
+import static org.designPatterns.Projects.Elevator.Gateway.PanelProtocol.*;
+
+/*
+Network entry point for hall, destination and car buttons. Panels connect over TCP and send PanelProtocol frames; one
+selector thread serves every connection, decodes frames in place from a direct buffer per connection and presses the
+button through the same Floor and ElevatorCar calls as code running in the JVM, so the building's dispatchers route
+them as usual. Each request is answered with an ack naming the car that will come.
+Acks are written into a second buffer per connection. While a client is not reading its acks the gateway stops
+reading its requests, so a slow panel cannot make it buffer without limit.
+*/
+public class PanelGateway implements Runnable, AutoCloseable {
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    final Building building;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Consumer<SelectionKey> handler = this::handle;
+    private Thread thread;
+    private volatile boolean stopped;
+
+    // Written by the selector thread only
+    public volatile long events;
+    public volatile long rejected;
+    public volatile long connections;
+
+    public PanelGateway(Building building, InetSocketAddress address) throws IOException {
+        this.building = building;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address, 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int port() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    // The selector spends its life blocked in select, so it gets a platform thread of its own
+    public PanelGateway start() {
+        thread = new Thread(this, "panel-gateway");
+        thread.start();
+        return this;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!stopped) {
+                selector.select(handler);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Nothing left to release
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isWritable()) {
+                flush(key, connection);
+            }
+            if (key.isValid() && key.isReadable()) {
+                if (connection.channel.read(connection.in) == -1) {
+                    closeQuietly(key);
+                    return;
+                }
+                flush(key, connection);
+            }
+        } catch (IOException e) {
+            // The panel went away; its connection is all that is lost
+            closeQuietly(key);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+            connections++;
+        }
+    }
+
+    // Answers every complete request that fits in the ack buffer and writes out what the socket takes
+    private void flush(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer out = connection.out;
+        while (true) {
+            process(connection);
+            out.flip();
+            connection.channel.write(out);
+            out.compact();
+            if (out.position() > 0) {
+                // Read again once the client has taken its acks
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            if (connection.in.position() < REQUEST_SIZE) {
+                key.interestOps(SelectionKey.OP_READ);
+                return;
+            }
+        }
+    }
+
+    private void process(Connection connection) {
+        ByteBuffer in = connection.in;
+        ByteBuffer out = connection.out;
+        in.flip();
+        while (in.remaining() >= REQUEST_SIZE && out.remaining() >= ACK_SIZE) {
+            int position = in.position();
+            int sequence = in.getInt(position);
+            byte kind = in.get(position + 4);
+            byte direction = in.get(position + 5);
+            int floor = in.getShort(position + 6);
+            int value = in.getShort(position + 8);
+            in.position(position + REQUEST_SIZE);
+
+            int result = route(kind, direction, floor, value);
+            byte status = (byte) (result >>> 16);
+            if (status != OK) {
+                rejected++;
+            }
+            events++;
+            putAck(out, sequence, status, (short) result);
+        }
+        in.compact();
+    }
+
+    // Presses the button and returns status << 16 | car, with car -1 when any car may come
+    int route(byte kind, byte direction, int floorNumber, int value) {
+        switch (kind) {
+            case HALL -> {
+                if (direction != UP && direction != DOWN) {
+                    return refuse(MALFORMED);
+                }
+                Floor floor = building.floor(floorNumber);
+                // A floor no car serves has nobody to send, and its button is not lit
+                if (floor == null || building.registry.carsServing(floorNumber).length == 0) {
+                    return refuse(REJECTED);
+                }
+                Direction hallDirection = direction == UP ? Direction.UP : Direction.DOWN;
+                floor.pressButton(hallDirection);
+                // A call shared by several cars, or one the dispatcher keeps on a board of its own, has no single owner
+                int owner = floor.externalDispatcher.hallCalls.owner(floorNumber, hallDirection);
+                return owner >= 0 ? owner : 0xFFFF;
+            }
+            case DESTINATION -> {
+                Floor floor = building.floor(floorNumber);
+                if (floor == null || value == floorNumber || building.floor(value) == null
+                        || building.registry.carsServing(floorNumber).length == 0) {
+                    return refuse(REJECTED);
+                }
+                int car = floor.pressButton(value);
+                return car >= 0 ? car : 0xFFFF;
+            }
+            case CAR -> {
+                ElevatorController controller = building.controller(value);
+                if (controller == null || !controller.elevatorCar.serves(floorNumber)) {
+                    return refuse(REJECTED);
+                }
+                controller.elevatorCar.pressButton(floorNumber);
+                return value;
+            }
+            default -> {
+                return refuse(MALFORMED);
+            }
+        }
+    }
+
+    private static int refuse(byte status) {
+        return status << 16 | 0xFFFF;
+    }
+
+    private void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // Already gone
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stopped = true;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        server.close();
+    }
+
+    static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.designPatterns.Projects.Elevator.Gateway;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorActor;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.designPatterns.Projects.Elevator.Gateway.PanelProtocol.*;
+
+/*
+Load test for PanelGateway over loopback. Starts a 40-floor, 8-car building with every car running as an actor, then
+connects the given number of panels from one client selector thread. Every panel keeps up to window requests in
+flight: nine in ten panels are hall panels, the rest are the car panels of a car. Each ack is checked against the
+sequence number it should answer.
+Usage: PanelLoadClient [panels] [seconds] [window]
+*/
+public class PanelLoadClient {
+    static final int FLOORS = 40;
+    static final int CARS = 8;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int panels = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+        int window = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        Building building = BuildingLoader.fromString("floors 0 " + (FLOORS - 1) + "\ndispatcher eta\ncars " + CARS + "\n");
+        List<ElevatorActor> actors = new ArrayList<>();
+        for (ElevatorController controller : building.controllers) {
+            actors.add(new ElevatorActor(controller).start());
+        }
+        PanelGateway gateway = new PanelGateway(building, new InetSocketAddress("127.0.0.1", 0)).start();
+
+        try {
+            Load load = new Load(new InetSocketAddress("127.0.0.1", gateway.port()), panels, window);
+            load.connect();
+            // Let the JIT settle before measuring
+            load.run(System.nanoTime() + 1_000_000_000L);
+            long acksBefore = load.acks;
+            long start = System.nanoTime();
+            load.run(start + (long) (seconds * 1e9));
+            long elapsed = System.nanoTime() - start;
+            load.close();
+
+            long acks = load.acks - acksBefore;
+            System.out.printf("%d panels, window %d: %,d acks in %.1f s = %,.0f events/s%n", panels, window, acks,
+                    elapsed / 1e9, acks * 1e9 / elapsed);
+            System.out.printf("gateway: %,d events, %,d refused, %d connections; client: %,d acks for a car, %d out of order%n",
+                    gateway.events, gateway.rejected, gateway.connections, load.assigned, load.outOfOrder);
+        } finally {
+            gateway.close();
+            for (ElevatorActor actor : actors) {
+                actor.shutdown();
+            }
+            for (ElevatorActor actor : actors) {
+                actor.join();
+            }
+        }
+    }
+
+    static final class Load {
+        final Selector selector;
+        final Panel[] panels;
+        final InetSocketAddress address;
+        final int window;
+        final SplittableRandom random = new SplittableRandom(17);
+        long acks;
+        long assigned;
+        long outOfOrder;
+
+        Load(InetSocketAddress address, int panelCount, int window) throws IOException {
+            this.address = address;
+            this.window = window;
+            selector = Selector.open();
+            panels = new Panel[panelCount];
+        }
+
+        void connect() throws IOException {
+            for (int i = 0; i < panels.length; i++) {
+                SocketChannel channel = SocketChannel.open(address);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.configureBlocking(false);
+                Panel panel = new Panel(i, channel, window);
+                panels[i] = panel;
+                channel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE, panel);
+            }
+        }
+
+        void run(long deadline) throws IOException {
+            while (System.nanoTime() < deadline) {
+                selector.select(key -> {
+                    try {
+                        Panel panel = (Panel) key.attachment();
+                        if (key.isReadable()) {
+                            readAcks(panel);
+                        }
+                        if (key.isWritable() || panel.inFlight < window) {
+                            sendRequests(panel);
+                        }
+                        key.interestOps(panel.out.position() > 0 || panel.inFlight < window
+                                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Panel " + ((Panel) key.attachment()).id + " lost its connection", e);
+                    }
+                }, 100);
+            }
+        }
+
+        void sendRequests(Panel panel) throws IOException {
+            ByteBuffer out = panel.out;
+            while (panel.inFlight < window && out.remaining() >= REQUEST_SIZE) {
+                int floor = random.nextInt(FLOORS);
+                if (panel.id % 10 == 9) {
+                    putRequest(out, panel.nextSequence++, CAR, UP, floor, 1 + panel.id % CARS);
+                } else {
+                    int hallFloor = panel.id % FLOORS;
+                    byte direction = hallFloor == 0 ? UP : hallFloor == FLOORS - 1 ? DOWN : random.nextBoolean() ? UP : DOWN;
+                    putRequest(out, panel.nextSequence++, HALL, direction, hallFloor, 0);
+                }
+                panel.inFlight++;
+            }
+            out.flip();
+            panel.channel.write(out);
+            out.compact();
+        }
+
+        void readAcks(Panel panel) throws IOException {
+            ByteBuffer in = panel.in;
+            if (panel.channel.read(in) == -1) {
+                throw new IOException("Gateway closed the connection");
+            }
+            in.flip();
+            while (in.remaining() >= ACK_SIZE) {
+                int sequence = in.getInt();
+                in.get();
+                in.get();
+                short car = in.getShort();
+                if (sequence != panel.expectedSequence) {
+                    outOfOrder++;
+                }
+                panel.expectedSequence = sequence + 1;
+                if (car >= 0) {
+                    assigned++;
+                }
+                panel.inFlight--;
+                acks++;
+            }
+            in.compact();
+        }
+
+        void close() throws IOException {
+            for (Panel panel : panels) {
+                panel.channel.close();
+            }
+            selector.close();
+        }
+    }
+
+    static final class Panel {
+        final int id;
+        final SocketChannel channel;
+        final ByteBuffer out;
+        final ByteBuffer in;
+        int nextSequence;
+        int expectedSequence;
+        int inFlight;
+
+        Panel(int id, SocketChannel channel, int window) {
+            this.id = id;
+            this.channel = channel;
+            out = ByteBuffer.allocateDirect(window * REQUEST_SIZE);
+            in = ByteBuffer.allocateDirect(window * ACK_SIZE + ACK_SIZE);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.designPatterns.Projects.Elevator.Gateway;
+
+import java.nio.ByteBuffer;
+
+/*
+Wire format between button panels and the PanelGateway. Every frame has a fixed size, so frames are read straight out
+of the connection's buffer without allocating or looking for delimiters. Numbers are big-endian.
+    request  int sequence, byte kind, byte direction, short floor, short value      (10 bytes)
+             HALL         hall button on floor, direction 0 up / 1 down, value unused
+             DESTINATION  destination panel on floor, value is the floor keyed in
+             CAR          button for floor pressed inside car number value
+    ack      int sequence, byte status, byte unused, short car                      (8 bytes)
+             car is the car that will come, or -1 when any car may (always -1 for a refused request)
+Acks come back on each connection in the order the requests were sent.
+*/
+public final class PanelProtocol {
+    public static final int REQUEST_SIZE = 10;
+    public static final int ACK_SIZE = 8;
+
+    public static final byte HALL = 1;
+    public static final byte DESTINATION = 2;
+    public static final byte CAR = 3;
+
+    public static final byte UP = 0;
+    public static final byte DOWN = 1;
+
+    public static final byte OK = 0;
+    // The floor or car does not exist, or the car does not stop at the floor
+    public static final byte REJECTED = 1;
+    // Unknown kind or direction
+    public static final byte MALFORMED = 2;
+
+    private PanelProtocol() {
+    }
+
+    public static void putRequest(ByteBuffer buffer, int sequence, byte kind, byte direction, int floor, int value) {
+        buffer.putInt(sequence).put(kind).put(direction).putShort((short) floor).putShort((short) value);
+    }
+
+    public static void putAck(ByteBuffer buffer, int sequence, byte status, int car) {
+        buffer.putInt(sequence).put(status).put((byte) 0).putShort((short) car);
+    }
+}
@@ -0,0 +1,91 @@
+package org.designPatterns.Projects.Elevator.Journal;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/*
+Drives a journaled controller through millions of requests and stops, abandons it without closing the journal (as a
+crash would), then recovers the state into a brand-new controller and checks it matches.
+Usage: JournalRecoveryDemo [operations] [journal directory]
+*/
+public class JournalRecoveryDemo {
+    public static void main(String[] args) throws IOException {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Path directory = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("elevator-journal");
+        String spec = "floors 0 100\ncars 1\n";
+
+        long plainNanos = drive(controller(spec), operations);
+
+        ElevatorController before = controller(spec);
+        RequestJournal journal = RequestJournal.open(directory, before);
+        long journaledNanos = drive(before, operations);
+        System.out.printf("%d operations: %.1f ns/op without journal, %.1f ns/op with journal (%d records, %d compactions)%n",
+                operations, (double) plainNanos / operations, (double) journaledNanos / operations,
+                journal.recordsWritten(), journal.compactions());
+
+        // No close(): the mapped pages survive the process, exactly as after a crash
+        ElevatorController after = controller(spec);
+        long start = System.nanoTime();
+        RequestJournal recovered = RequestJournal.open(directory, after);
+        double recoveryMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("Recovered in %.2f ms: floor %d, %d up / %d down / %d staged stops, state %s%n",
+                recoveryMillis, after.elevatorCar.currentFloor, after.upMinPQ.size(), after.downMaxPQ.size(),
+                after.stagedCount(), sameState(before, after) ? "matches" : "DIFFERS");
+        recovered.close();
+    }
+
+    static ElevatorController controller(String spec) {
+        Building building = BuildingLoader.fromString(spec);
+        return building.registry.controllers()[0];
+    }
+
+    // Random hall and car calls; roughly every third operation the car serves its next stop
+    static long drive(ElevatorController controller, int operations) {
+        SplittableRandom random = new SplittableRandom(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            int floor = random.nextInt(101);
+            switch (random.nextInt(3)) {
+                case 0 -> controller.submitExternalRequest(floor, random.nextBoolean() ? Direction.UP : Direction.DOWN);
+                case 1 -> controller.submitInternalRequest(floor, floor > controller.elevatorCar.currentFloor ? Direction.UP : Direction.DOWN);
+                default -> {
+                    int stop = controller.pollNextStop();
+                    if (stop != -1) {
+                        controller.elevatorCar.arriveAt(stop);
+                        controller.arrivedAt(stop);
+                    }
+                }
+            }
+            controller.drainInbox();
+        }
+        return System.nanoTime() - start;
+    }
+
+    static boolean sameState(ElevatorController a, ElevatorController b) {
+        return a.elevatorCar.currentFloor == b.elevatorCar.currentFloor
+                && a.elevatorCar.elevatorDirection == b.elevatorCar.elevatorDirection
+                && sameStops(a.upMinPQ, b.upMinPQ) && sameStops(a.downMaxPQ, b.downMaxPQ)
+                && sameStops(a.stagedUp, b.stagedUp) && sameStops(a.stagedDown, b.stagedDown)
+                && sameStops(a.carCalls, b.carCalls);
+    }
+
+    static boolean sameStops(FloorStopSet a, FloorStopSet b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int floor = a.first(); floor != -1; floor = a.nextAtOrAbove(floor + 1)) {
+            if (!b.contains(floor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,312 @@
+package org.designPatterns.Projects.Elevator.Journal;
+
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+Append-only journal of one controller's state changes on a pair of memory-mapped files.
+
+Every change to the stop sets and every arrival is written as a fixed 16-byte record:
+    int generation | byte type | byte argument | short 0 | int floor | int checksum
+Appending is a handful of stores into the mapped page cache: no system call and no lock, so the control loop never
+waits on the disk. The OS writes the pages back on its own; force() can be called from another thread to bound
+how much a power failure may lose. A JVM crash loses nothing that was appended.
+
+When the active file fills up, the controller's current state (pending stops, the car calls among them, and position) is written as a compact
+snapshot at the start of the other file under the next generation, and appending continues there. The header's
+generation is written last, so a crash during compaction leaves the older file as the valid one. Recovery picks the
+file with the newest generation and replays at most one file's worth of records, however long the journal has run.
+Records left over from an older generation fail the generation check, which is where replay stops.
+*/
+public class RequestJournal implements AutoCloseable {
+    static final int MAGIC = 0x454C564A;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 16;
+
+    // Record types
+    static final byte STOP_ADDED = 1;
+    static final byte STOP_SERVED = 2;
+    static final byte STAGED_MERGED = 3;
+    static final byte POSITION = 4;
+
+    // STOP_ADDED arguments: which set the floor went into
+    public static final byte UP = 0;
+    public static final byte DOWN = 1;
+    public static final byte STAGED_UP = 2;
+    public static final byte STAGED_DOWN = 3;
+    // The floor is one a rider asked for; it is added to the up or down set by a record of its own
+    public static final byte CAR_CALL = 4;
+
+    // STOP_SERVED argument flags: the sets the floor is no longer in
+    static final byte SERVED_UP = 1;
+    static final byte SERVED_DOWN = 2;
+    static final byte SERVED_STAGED_UP = 4;
+    static final byte SERVED_STAGED_DOWN = 8;
+    static final byte SERVED_CAR_CALL = 16;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    final ElevatorController controller;
+    final FileChannel[] channels = new FileChannel[2];
+    final MappedByteBuffer[] files = new MappedByteBuffer[2];
+    final int recordCapacity;
+    private volatile int active;
+    private int generation;
+    private int position;
+    private long recordsWritten;
+    private long compactions;
+
+    private RequestJournal(ElevatorController controller, Path directory, int recordCapacity) throws IOException {
+        this.controller = controller;
+        this.recordCapacity = recordCapacity;
+        Files.createDirectories(directory);
+        long size = HEADER_SIZE + (long) recordCapacity * RECORD_SIZE;
+        for (int i = 0; i < 2; i++) {
+            Path path = directory.resolve("car-" + controller.elevatorCar.id + (i == 0 ? "-a" : "-b") + ".journal");
+            channels[i] = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            files[i] = channels[i].map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /*
+    Opens (or creates) the journal for a controller, restores whatever state the journal holds into the controller and
+    its car, and attaches itself so every further change is recorded. Call before the car starts moving.
+    */
+    public static RequestJournal open(Path directory, ElevatorController controller) throws IOException {
+        return open(directory, controller, 1 << 16);
+    }
+
+    public static RequestJournal open(Path directory, ElevatorController controller, int recordCapacity) throws IOException {
+        RequestJournal journal = new RequestJournal(controller, directory, recordCapacity);
+        journal.recover();
+        controller.journal = journal;
+        return journal;
+    }
+
+    private void recover() {
+        int generationA = validGeneration(files[0]);
+        int generationB = validGeneration(files[1]);
+        if (generationA == 0 && generationB == 0) {
+            // Fresh journal: start from whatever state the controller has now
+            active = 0;
+            generation = 0;
+            compactInto(0);
+            return;
+        }
+        active = Integer.compareUnsigned(generationA, generationB) >= 0 ? 0 : 1;
+        generation = active == 0 ? generationA : generationB;
+
+        clear(controller);
+        MappedByteBuffer file = files[active];
+        position = 0;
+        while (position < recordCapacity) {
+            int offset = HEADER_SIZE + position * RECORD_SIZE;
+            int recordGeneration = file.getInt(offset);
+            byte type = file.get(offset + 4);
+            byte argument = file.get(offset + 5);
+            int floor = file.getInt(offset + 8);
+            if (recordGeneration != generation || file.getInt(offset + 12) != checksum(recordGeneration, type, argument, floor)) {
+                break;
+            }
+            apply(type, argument, floor);
+            position++;
+        }
+    }
+
+    private int validGeneration(MappedByteBuffer file) {
+        if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION || file.getInt(8) != controller.elevatorCar.id
+                || file.getInt(12) != recordCapacity) {
+            return 0;
+        }
+        return file.getInt(16);
+    }
+
+    private static void clear(ElevatorController controller) {
+        controller.upMinPQ.clear();
+        controller.downMaxPQ.clear();
+        controller.stagedUp.clear();
+        controller.stagedDown.clear();
+        controller.carCalls.clear();
+    }
+
+    private void apply(byte type, byte argument, int floor) {
+        switch (type) {
+            case STOP_ADDED -> set(argument).add(floor);
+            case STOP_SERVED -> {
+                if ((argument & SERVED_UP) != 0) {
+                    controller.upMinPQ.remove(floor);
+                }
+                if ((argument & SERVED_DOWN) != 0) {
+                    controller.downMaxPQ.remove(floor);
+                }
+                if ((argument & SERVED_STAGED_UP) != 0) {
+                    controller.stagedUp.remove(floor);
+                }
+                if ((argument & SERVED_STAGED_DOWN) != 0) {
+                    controller.stagedDown.remove(floor);
+                }
+                if ((argument & SERVED_CAR_CALL) != 0) {
+                    controller.carCalls.remove(floor);
+                }
+            }
+            case STAGED_MERGED -> {
+                controller.upMinPQ.drainFrom(controller.stagedUp);
+                controller.downMaxPQ.drainFrom(controller.stagedDown);
+            }
+            case POSITION -> {
+                controller.elevatorCar.currentFloor = floor;
+                controller.elevatorCar.elevatorDirection = DIRECTIONS[argument];
+            }
+        }
+    }
+
+    private FloorStopSet set(byte which) {
+        return switch (which) {
+            case UP -> controller.upMinPQ;
+            case DOWN -> controller.downMaxPQ;
+            case STAGED_UP -> controller.stagedUp;
+            case STAGED_DOWN -> controller.stagedDown;
+            default -> controller.carCalls;
+        };
+    }
+
+    public void stopAdded(byte set, int floor) {
+        append(STOP_ADDED, set, floor);
+    }
+
+    // Floor was removed from one of the active sets, by the scheduler, a hand-off or a bypass; record every active set
+    // that no longer holds it, and the car call if that is gone too
+    public void stopServed(int floor) {
+        byte served = 0;
+        if (!controller.upMinPQ.contains(floor)) {
+            served |= SERVED_UP;
+        }
+        if (!controller.downMaxPQ.contains(floor)) {
+            served |= SERVED_DOWN;
+        }
+        if (!controller.carCalls.contains(floor)) {
+            served |= SERVED_CAR_CALL;
+        }
+        append(STOP_SERVED, served, floor);
+    }
+
+    // A hall call was taken away from the car; it may have been in a staged set too
+    public void stopWithdrawn(int floor) {
+        byte served = 0;
+        if (!controller.upMinPQ.contains(floor)) {
+            served |= SERVED_UP;
+        }
+        if (!controller.downMaxPQ.contains(floor)) {
+            served |= SERVED_DOWN;
+        }
+        if (!controller.stagedUp.contains(floor)) {
+            served |= SERVED_STAGED_UP;
+        }
+        if (!controller.stagedDown.contains(floor)) {
+            served |= SERVED_STAGED_DOWN;
+        }
+        append(STOP_SERVED, served, floor);
+    }
+
+    public void stagedMerged() {
+        append(STAGED_MERGED, (byte) 0, 0);
+    }
+
+    public void position(int floor, Direction direction) {
+        append(POSITION, (byte) (direction == null ? 0 : direction.ordinal()), floor);
+    }
+
+    private void append(byte type, byte argument, int floor) {
+        if (position == recordCapacity) {
+            compactInto(1 - active);
+        }
+        MappedByteBuffer file = files[active];
+        int offset = HEADER_SIZE + position * RECORD_SIZE;
+        file.putInt(offset, generation);
+        file.put(offset + 4, type);
+        file.put(offset + 5, argument);
+        file.putShort(offset + 6, (short) 0);
+        file.putInt(offset + 8, floor);
+        // The checksum goes last: a record is only valid once all of it has been written
+        file.putInt(offset + 12, checksum(generation, type, argument, floor));
+        position++;
+        recordsWritten++;
+    }
+
+    // Writes the controller's current state as the first records of a new generation in the given file
+    private void compactInto(int target) {
+        MappedByteBuffer file = files[target];
+        int nextGeneration = generation + 1 == 0 ? 1 : generation + 1;
+        file.putInt(16, 0);
+        file.putInt(0, MAGIC);
+        file.putInt(4, VERSION);
+        file.putInt(8, controller.elevatorCar.id);
+        file.putInt(12, recordCapacity);
+
+        active = target;
+        generation = nextGeneration;
+        position = 0;
+        ElevatorCar car = controller.elevatorCar;
+        snapshotSet(controller.upMinPQ, UP);
+        snapshotSet(controller.downMaxPQ, DOWN);
+        snapshotSet(controller.stagedUp, STAGED_UP);
+        snapshotSet(controller.stagedDown, STAGED_DOWN);
+        snapshotSet(controller.carCalls, CAR_CALL);
+        position(car.currentFloor, car.elevatorDirection);
+
+        // Publishing the generation makes this file the one recovery trusts
+        file.putInt(16, generation);
+        compactions++;
+    }
+
+    private void snapshotSet(FloorStopSet stops, byte set) {
+        for (int floor = stops.first(); floor != -1; floor = stops.nextAtOrAbove(floor + 1)) {
+            if (position == recordCapacity) {
+                throw new IllegalStateException("Journal capacity " + recordCapacity + " is too small for a snapshot");
+            }
+            append(STOP_ADDED, set, floor);
+        }
+    }
+
+    static int checksum(int generation, byte type, byte argument, int floor) {
+        int hash = generation * 0x9E3779B1;
+        hash = (hash ^ type) * 0x85EBCA6B;
+        hash = (hash ^ argument) * 0xC2B2AE35;
+        hash = (hash ^ floor) * 0x27D4EB2F;
+        return hash ^ (hash >>> 15);
+    }
+
+    public long recordsWritten() {
+        return recordsWritten;
+    }
+
+    public long compactions() {
+        return compactions;
+    }
+
+    // Asks the OS to write the mapped pages to disk; safe to call from a background thread
+    public void force() {
+        files[active].force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (controller.journal == this) {
+            controller.journal = null;
+        }
+        force();
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+}
@@ -1,30 +1,34 @@
 package org.designPatterns.Projects.Elevator;
 
 
-import org.designPatterns.Projects.Elevator.Components.Floor;
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorActor;
 import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
-import org.designPatterns.Projects.Elevator.Controller.ElevatorCreator;
 import org.designPatterns.Projects.Elevator.State.Direction;
-
-import java.util.ArrayList;
-import java.util.List;
+import org.designPatterns.Projects.Elevator.Telemetry.AsyncTelemetrySink;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
 
 public class Main {
-    public static void main(String[] args) {
-        List<Floor> floorList = new ArrayList<>();
-        for (int i = 1; i <= 10; i++) {
-            floorList.add(new Floor(i));
-        }
-
-        ElevatorController controller = ElevatorCreator.elevatorControllerList.get(0);
-        controller.elevatorCar.currentFloor = 2;
+    public static void main(String[] args) throws InterruptedException {
+        // Stream state changes to the console from a background writer
+        Telemetry.install(AsyncTelemetrySink.toStdout());
+
+        Building building = BuildingLoader.fromString("""
+                building demo
+                floors 1 10
+                dispatcher broadcast
+                car 1 start=2
+                """);
+
+        ElevatorController controller = building.controller(1);
         controller.elevatorCar.elevatorDirection = Direction.UP;
 
         // Simulating multiple external requests
-        floorList.get(0).pressButton(Direction.UP);  // Floor 1 UP
-        floorList.get(3).pressButton(Direction.DOWN);  // Floor 4 DOWN
-        floorList.get(5).pressButton(Direction.UP);  // Floor 6 UP
-        floorList.get(8).pressButton(Direction.DOWN);  // Floor 9 DOWN
+        building.floor(1).pressButton(Direction.UP);
+        building.floor(4).pressButton(Direction.DOWN);
+        building.floor(6).pressButton(Direction.UP);
+        building.floor(9).pressButton(Direction.DOWN);
 
         // Simulating multiple internal requests
         controller.elevatorCar.pressButton(5);  // Internal request to Floor 5
@@ -32,6 +36,15 @@ public class Main {
         controller.elevatorCar.pressButton(2);  // Internal request to Floor 2
         controller.elevatorCar.pressButton(8);  // Internal request to Floor 8
 
-        new Thread(controller::controlElevator).start();
+        // The car runs as an actor on a virtual thread and parks when it runs out of work
+        ElevatorActor actor = new ElevatorActor(controller).start();
+
+        // A request that arrives after the car has gone idle wakes it up again
+        Thread.sleep(100);
+        building.floor(10).pressButton(Direction.DOWN);
+
+        actor.shutdown();
+        actor.join();
+        Telemetry.uninstall();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,284 @@
+package org.designPatterns.Projects.Elevator.Metrics;
+
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/*
+Measurements for one car, recorded by the thread that drives it and readable from any thread without locks.
+    hall call -> arrival   from the controller accepting a hall call to the car stopping there for it
+    ride time              from a car call (the button pressed on boarding) to the car stopping at that floor
+    door cycle             from the doors opening to them closing again
+When several calls for the same stop are pending, the earliest one is timed: that is the passenger who waited longest.
+Recording never allocates; the per-floor timestamp arrays only grow when a car is given a floor beyond them.
+*/
+public class CarMetrics implements CarMetricsMXBean {
+    private static final long NONE = Long.MIN_VALUE;
+
+    public final int carId;
+    // Milliseconds; the simulation swaps in its virtual clock
+    public LongSupplier clock = System::currentTimeMillis;
+
+    final LatencyHistogram hallCallToArrival = new LatencyHistogram();
+    final LatencyHistogram rideTime = new LatencyHistogram();
+    final LatencyHistogram doorCycle = new LatencyHistogram();
+
+    final AtomicLong hallCalls = new AtomicLong();
+    final AtomicLong carCalls = new AtomicLong();
+    final AtomicLong duplicateRequests = new AtomicLong();
+    final AtomicLong stagedRequests = new AtomicLong();
+    final AtomicLong stagedMerges = new AtomicLong();
+    final AtomicLong bypassedCalls = new AtomicLong();
+    final AtomicLong reassignedCalls = new AtomicLong();
+    final AtomicLong overflowedRequests = new AtomicLong();
+    final AtomicLong stopsServed = new AtomicLong();
+    final AtomicLong floorsTravelled = new AtomicLong();
+
+    volatile int upQueueDepth;
+    volatile int downQueueDepth;
+    volatile int stagedQueueDepth;
+    volatile int maxQueueDepth;
+
+    // Pending call timestamps by floor, only touched by the driving thread
+    private long[] upHallCallSince = new long[0];
+    private long[] downHallCallSince = new long[0];
+    private long[] carCallSince = new long[0];
+    private int lastFloor = -1;
+    private long doorOpenedAt = NONE;
+
+    public CarMetrics(int carId, int floors) {
+        this.carId = carId;
+        ensureFloor(Math.max(0, floors - 1));
+    }
+
+    public void hallCall(int floor, Direction direction) {
+        hallCalls.incrementAndGet();
+        ensureFloor(floor);
+        long[] since = direction == Direction.UP ? upHallCallSince : downHallCallSince;
+        if (since[floor] == NONE) {
+            since[floor] = clock.getAsLong();
+        }
+    }
+
+    public void carCall(int floor) {
+        carCalls.incrementAndGet();
+        ensureFloor(floor);
+        if (carCallSince[floor] == NONE) {
+            carCallSince[floor] = clock.getAsLong();
+        }
+    }
+
+    public void duplicateRequest() {
+        duplicateRequests.incrementAndGet();
+    }
+
+    public void stagedRequest() {
+        stagedRequests.incrementAndGet();
+    }
+
+    public void stagedMerge() {
+        stagedMerges.incrementAndGet();
+    }
+
+    // A hall call the car passed over because it was too full; once another car has taken it, it is no longer timed here
+    public void bypassed(int floor, Direction direction, boolean handedOff) {
+        bypassedCalls.incrementAndGet();
+        if (handedOff && floor < upHallCallSince.length) {
+            (direction == Direction.UP ? upHallCallSince : downHallCallSince)[floor] = NONE;
+        }
+    }
+
+    // A hall call the dispatcher moved to a car that will get there sooner
+    public void reassigned(int floor, Direction direction) {
+        reassignedCalls.incrementAndGet();
+        if (floor < upHallCallSince.length) {
+            (direction == Direction.UP ? upHallCallSince : downHallCallSince)[floor] = NONE;
+        }
+    }
+
+    // A request that found the controller's inbox full and went to its overflow queue; any thread
+    public void overflowedRequest() {
+        overflowedRequests.incrementAndGet();
+    }
+
+    public void queueDepth(int up, int down, int staged) {
+        upQueueDepth = up;
+        downQueueDepth = down;
+        stagedQueueDepth = staged;
+        int total = up + down + staged;
+        if (total > maxQueueDepth) {
+            maxQueueDepth = total;
+        }
+    }
+
+    // The car stopped at floor; upPending / downPending say whether a hall call in that direction is still queued
+    public void arrived(int floor, boolean upPending, boolean downPending) {
+        long now = clock.getAsLong();
+        stopsServed.incrementAndGet();
+        if (lastFloor != -1) {
+            floorsTravelled.addAndGet(Math.abs(floor - lastFloor));
+        }
+        lastFloor = floor;
+
+        ensureFloor(floor);
+        if (!upPending && upHallCallSince[floor] != NONE) {
+            hallCallToArrival.record(now - upHallCallSince[floor]);
+            upHallCallSince[floor] = NONE;
+        }
+        if (!downPending && downHallCallSince[floor] != NONE) {
+            hallCallToArrival.record(now - downHallCallSince[floor]);
+            downHallCallSince[floor] = NONE;
+        }
+        if (carCallSince[floor] != NONE) {
+            rideTime.record(now - carCallSince[floor]);
+            carCallSince[floor] = NONE;
+        }
+    }
+
+    public void doorOpened() {
+        doorOpenedAt = clock.getAsLong();
+    }
+
+    public void doorClosed() {
+        if (doorOpenedAt != NONE) {
+            doorCycle.record(clock.getAsLong() - doorOpenedAt);
+            doorOpenedAt = NONE;
+        }
+    }
+
+    private void ensureFloor(int floor) {
+        if (floor >= carCallSince.length) {
+            int length = Math.max(floor + 1, carCallSince.length * 2);
+            upHallCallSince = grow(upHallCallSince, length);
+            downHallCallSince = grow(downHallCallSince, length);
+            carCallSince = grow(carCallSince, length);
+        }
+    }
+
+    private static long[] grow(long[] since, int length) {
+        int oldLength = since.length;
+        since = Arrays.copyOf(since, length);
+        Arrays.fill(since, oldLength, length, NONE);
+        return since;
+    }
+
+    @Override
+    public int getCarId() {
+        return carId;
+    }
+
+    @Override
+    public long getHallCalls() {
+        return hallCalls.get();
+    }
+
+    @Override
+    public long getCarCalls() {
+        return carCalls.get();
+    }
+
+    @Override
+    public long getDuplicateRequests() {
+        return duplicateRequests.get();
+    }
+
+    @Override
+    public long getStagedRequests() {
+        return stagedRequests.get();
+    }
+
+    @Override
+    public long getStagedMerges() {
+        return stagedMerges.get();
+    }
+
+    @Override
+    public long getBypassedCalls() {
+        return bypassedCalls.get();
+    }
+
+    @Override
+    public long getReassignedCalls() {
+        return reassignedCalls.get();
+    }
+
+    @Override
+    public long getOverflowedRequests() {
+        return overflowedRequests.get();
+    }
+
+    @Override
+    public long getStopsServed() {
+        return stopsServed.get();
+    }
+
+    @Override
+    public long getFloorsTravelled() {
+        return floorsTravelled.get();
+    }
+
+    @Override
+    public int getUpQueueDepth() {
+        return upQueueDepth;
+    }
+
+    @Override
+    public int getDownQueueDepth() {
+        return downQueueDepth;
+    }
+
+    @Override
+    public int getStagedQueueDepth() {
+        return stagedQueueDepth;
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    @Override
+    public LatencySnapshot getHallCallToArrival() {
+        return new LatencySnapshot(hallCallToArrival);
+    }
+
+    @Override
+    public LatencySnapshot getRideTime() {
+        return new LatencySnapshot(rideTime);
+    }
+
+    @Override
+    public LatencySnapshot getDoorCycle() {
+        return new LatencySnapshot(doorCycle);
+    }
+
+    // Clears the counters and histograms; calls already pending keep their timestamps
+    @Override
+    public void reset() {
+        hallCallToArrival.reset();
+        rideTime.reset();
+        doorCycle.reset();
+        hallCalls.set(0);
+        carCalls.set(0);
+        duplicateRequests.set(0);
+        stagedRequests.set(0);
+        stagedMerges.set(0);
+        bypassedCalls.set(0);
+        reassignedCalls.set(0);
+        overflowedRequests.set(0);
+        stopsServed.set(0);
+        floorsTravelled.set(0);
+        maxQueueDepth = upQueueDepth + downQueueDepth + stagedQueueDepth;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("car %d: hallCalls=%d carCalls=%d duplicates=%d staged=%d merges=%d bypassed=%d reassigned=%d stops=%d floors=%d maxQueue=%d%n"
+                        + "  hallCallToArrival %s%n  rideTime %s%n  doorCycle %s",
+                carId, getHallCalls(), getCarCalls(), getDuplicateRequests(), getStagedRequests(), getStagedMerges(),
+                getBypassedCalls(), getReassignedCalls(), getStopsServed(), getFloorsTravelled(), getMaxQueueDepth(),
+                getHallCallToArrival(), getRideTime(), getDoorCycle());
+    }
+}
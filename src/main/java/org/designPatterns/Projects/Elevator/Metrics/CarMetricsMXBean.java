@@ -0,0 +1,42 @@
+package org.designPatterns.Projects.Elevator.Metrics;
+
+// Management view of one car; latencies are in milliseconds of the car's clock
+public interface CarMetricsMXBean {
+    int getCarId();
+
+    long getHallCalls();
+
+    long getCarCalls();
+
+    long getDuplicateRequests();
+
+    long getStagedRequests();
+
+    long getStagedMerges();
+
+    long getBypassedCalls();
+
+    long getReassignedCalls();
+
+    long getOverflowedRequests();
+
+    long getStopsServed();
+
+    long getFloorsTravelled();
+
+    int getUpQueueDepth();
+
+    int getDownQueueDepth();
+
+    int getStagedQueueDepth();
+
+    int getMaxQueueDepth();
+
+    LatencySnapshot getHallCallToArrival();
+
+    LatencySnapshot getRideTime();
+
+    LatencySnapshot getDoorCycle();
+
+    void reset();
+}
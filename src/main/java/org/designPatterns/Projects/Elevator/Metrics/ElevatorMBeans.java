@@ -0,0 +1,66 @@
+package org.designPatterns.Projects.Elevator.Metrics;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/*
+Publishes car metrics on the platform MBeanServer, one MBean per car:
+    org.designPatterns.elevator:type=Car,building=<name>,car=<id>
+so they show up in JConsole / VisualVM or any JMX scraper.
+*/
+public class ElevatorMBeans {
+    public static final String DOMAIN = "org.designPatterns.elevator";
+
+    private ElevatorMBeans() {
+    }
+
+    public static ObjectName objectName(String building, int carId) {
+        try {
+            return new ObjectName(DOMAIN + ":type=Car,building=" + ObjectName.quote(building) + ",car=" + carId);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid MBean name for building " + building, e);
+        }
+    }
+
+    public static void register(String building, ElevatorController controller) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = objectName(building, controller.elevatorCar.id);
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(controller.metrics, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + name, e);
+        }
+    }
+
+    public static void unregister(String building, int carId) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = objectName(building, carId);
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister " + name, e);
+        }
+    }
+
+    public static void registerAll(Building building) {
+        for (ElevatorController controller : building.registry.controllers()) {
+            register(building.name, controller);
+        }
+    }
+
+    public static void unregisterAll(Building building) {
+        for (ElevatorController controller : building.registry.controllers()) {
+            unregister(building.name, controller.elevatorCar.id);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.designPatterns.Projects.Elevator.Metrics;
+
+// Point-in-time summary of a LatencyHistogram, shaped for JMX (each getter becomes an item of a CompositeData)
+public class LatencySnapshot {
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    public LatencySnapshot(LatencyHistogram histogram) {
+        this.count = histogram.count();
+        this.mean = histogram.mean();
+        this.p50 = histogram.percentile(50);
+        this.p90 = histogram.percentile(90);
+        this.p99 = histogram.percentile(99);
+        this.max = histogram.max();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.0f p50=%d p90=%d p99=%d max=%d", count, mean, p50, p90, p99, max);
+    }
+}
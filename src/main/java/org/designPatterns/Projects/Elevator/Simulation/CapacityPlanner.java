@@ -0,0 +1,142 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficGenerator;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficPattern;
+
+import java.io.Serial;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+Runs many capacity-planning scenarios in parallel on a ForkJoinPool.
+Every scenario loads its own Building from its spec, so it has its own floors, controllers, registry and
+dispatchers, and streams its own traffic: nothing is shared between scenarios, and the pool can spread them over
+all cores. The scenario list is split in halves until single scenarios remain; results are merged back in order.
+
+Usage: CapacityPlanner [parallelism]   (default: all cores; the grid is also timed on one thread, for the speedup)
+*/
+public class CapacityPlanner {
+    public static class Result {
+        public final Scenario scenario;
+        public final SimulationStats stats;
+        public final long wallMillis;
+
+        Result(Scenario scenario, SimulationStats stats, long wallMillis) {
+            this.scenario = scenario;
+            this.stats = stats;
+            this.wallMillis = wallMillis;
+        }
+    }
+
+    // Tasks only live inside the pool and are never serialized
+    static class ScenarioTask extends RecursiveTask<List<Result>> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        final transient List<Scenario> scenarios;
+        final int from;
+        final int to;
+
+        ScenarioTask(List<Scenario> scenarios, int from, int to) {
+            this.scenarios = scenarios;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Result> compute() {
+            if (to - from == 1) {
+                List<Result> results = new ArrayList<>(1);
+                results.add(simulate(scenarios.get(from)));
+                return results;
+            }
+            int middle = (from + to) >>> 1;
+            ScenarioTask right = new ScenarioTask(scenarios, middle, to);
+            right.fork();
+            List<Result> results = new ScenarioTask(scenarios, from, middle).compute();
+            results.addAll(right.join());
+            return results;
+        }
+    }
+
+    public static List<Result> run(List<Scenario> scenarios, ForkJoinPool pool) {
+        if (scenarios.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return pool.invoke(new ScenarioTask(scenarios, 0, scenarios.size()));
+    }
+
+    public static Result simulate(Scenario scenario) {
+        long start = System.nanoTime();
+        Building building = BuildingLoader.fromString(scenario.buildingSpec);
+        int lobby = building.getAllFloorList().get(0).floorNumber;
+        SimulationEngine engine = new SimulationEngine(building);
+        engine.feed(new TrafficGenerator(scenario.pattern, lobby, building.topFloor(), scenario.passengersPerMinute,
+                scenario.durationMillis, scenario.seed));
+        SimulationStats stats = engine.run();
+        return new Result(scenario, stats, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public static void printTable(List<Result> results, PrintStream out) {
+        out.printf("%-30s %9s %8s %8s %8s %8s %8s %8s%n",
+                "scenario", "delivered", "per hour", "avgWait", "p99Wait", "avgRide", "p99Ride", "floors");
+        for (Result result : results) {
+            SimulationStats stats = result.stats;
+            out.printf("%-30s %9d %8.0f %7.1fs %7.1fs %7.1fs %7.1fs %8d%n",
+                    result.scenario.name, stats.passengersDelivered, stats.throughputPerHour(),
+                    stats.averageWaitTime() / 1000, stats.waitTimes.percentile(99) / 1000.0,
+                    stats.averageRideTime() / 1000, stats.rideTimes.percentile(99) / 1000.0, stats.floorsTravelled);
+        }
+    }
+
+    // Car count x dispatcher x traffic mix for a 30-floor office tower
+    static List<Scenario> grid() {
+        List<Scenario> scenarios = new ArrayList<>();
+        long seed = 1;
+        for (int cars : new int[]{2, 4, 6, 8}) {
+            for (String dispatcher : BuildingLoader.DISPATCHERS.keySet()) {
+                for (TrafficPattern pattern : TrafficPattern.values()) {
+                    String spec = "building office\n"
+                            + "floors 0 30\n"
+                            + "dispatcher " + dispatcher + "\n"
+                            + "cars " + cars + " start=0\n";
+                    String name = cars + " cars " + dispatcher + " " + pattern.name().toLowerCase();
+                    scenarios.add(new Scenario(name, spec, pattern, 30, 2 * 3_600_000, seed++));
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    public static void main(String[] args) {
+        int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        List<Scenario> scenarios = grid();
+
+        ForkJoinPool serial = new ForkJoinPool(1);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        // Alternate the two pools and keep the best time of each, so JIT warmup does not count as speedup
+        List<Result> results = null;
+        long serialMillis = Long.MAX_VALUE;
+        long parallelMillis = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            run(scenarios, serial);
+            serialMillis = Math.min(serialMillis, (System.nanoTime() - start) / 1_000_000);
+
+            start = System.nanoTime();
+            results = run(scenarios, pool);
+            parallelMillis = Math.min(parallelMillis, (System.nanoTime() - start) / 1_000_000);
+        }
+        serial.shutdown();
+        pool.shutdown();
+
+        printTable(results, System.out);
+        System.out.printf("%d scenarios: %d ms on 1 thread, %d ms on %d threads (speedup %.2fx)%n",
+                scenarios.size(), serialMillis, parallelMillis, parallelism, (double) serialMillis / parallelMillis);
+    }
+}
@@ -0,0 +1,52 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+
+import java.util.Random;
+
+/*
+Runs the same passenger trace through a fresh building once per dispatcher and prints the wait and travel numbers.
+*/
+public class DispatcherComparison {
+    public static void main(String[] args) {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int passengers = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+
+        // Random trips, one every 4 virtual seconds on average
+        Random random = new Random(7);
+        long[] times = new long[passengers];
+        int[] origins = new int[passengers];
+        int[] destinations = new int[passengers];
+        long time = 0;
+        for (int i = 0; i < passengers; i++) {
+            time += random.nextInt(8_000);
+            times[i] = time;
+            origins[i] = 1 + random.nextInt(floors);
+            do {
+                destinations[i] = 1 + random.nextInt(floors);
+            } while (destinations[i] == origins[i]);
+        }
+
+        System.out.println(cars + " cars, " + floors + " floors, " + passengers + " passengers");
+        for (String dispatcher : new String[]{"broadcast", "oddeven", "eta", "destination"}) {
+            String spec = "floors 1 " + floors + "\n"
+                    + "dispatcher " + dispatcher + "\n"
+                    + "cars " + cars + " start=1\n";
+            run(dispatcher, spec, times, origins, destinations);
+        }
+    }
+
+    static void run(String name, String spec, long[] times, int[] origins, int[] destinations) {
+        long start = System.nanoTime();
+        SimulationEngine engine = new SimulationEngine(BuildingLoader.fromString(spec));
+        for (int i = 0; i < times.length; i++) {
+            engine.schedulePassenger(times[i], origins[i], destinations[i]);
+        }
+        SimulationStats stats = engine.run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%-10s avgWait=%.1fs maxWait=%.1fs avgRide=%.1fs floorsTravelled=%d (%d ms)%n",
+                name, stats.averageWaitTime() / 1000, stats.maxWaitTime / 1000.0, stats.averageRideTime() / 1000,
+                stats.floorsTravelled, elapsedMillis);
+    }
+}
@@ -0,0 +1,28 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+public class Event implements Comparable<Event> {
+    long time;
+    long sequence;
+    EventType type;
+    int car;
+    int floor;
+    Passenger passenger;
+
+    Event(long time, long sequence, EventType type, int car, int floor, Passenger passenger) {
+        this.time = time;
+        this.sequence = sequence;
+        this.type = type;
+        this.car = car;
+        this.floor = floor;
+        this.passenger = passenger;
+    }
+
+    @Override
+    public int compareTo(Event other) {
+        // Earlier events first, ties broken by the order they were scheduled in
+        if (time != other.time) {
+            return Long.compare(time, other.time);
+        }
+        return Long.compare(sequence, other.sequence);
+    }
+}
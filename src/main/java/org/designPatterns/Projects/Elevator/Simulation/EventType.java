@@ -0,0 +1,5 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+public enum EventType {
+    PASSENGER_ARRIVAL, FLOOR_REACHED, DOOR_OPEN, DOOR_CLOSE, REASSIGN;
+}
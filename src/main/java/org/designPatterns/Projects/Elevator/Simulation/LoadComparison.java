@@ -0,0 +1,53 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficGenerator;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficPattern;
+import org.designPatterns.Projects.Elevator.Traffic.Trip;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Pushes an up-peak past what the cars can carry and compares load-blind cars (bypass=none) with cars that bypass hall
+calls once they are 80% full and are passed over by the dispatcher. Throughput is passengers delivered per hour of
+simulated time until the last one arrives, so a building that falls behind shows up as a lower number.
+Usage: LoadComparison [cars] [floors] [capacity] [minutes]
+*/
+public class LoadComparison {
+    public static void main(String[] args) {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        double minutes = args.length > 3 ? Double.parseDouble(args[3]) : 60;
+
+        System.out.println(cars + " cars of " + capacity + ", floors 0-" + floors + ", " + minutes + " minutes of UP_PEAK");
+        for (double rate : new double[]{20, 40, 60}) {
+            List<Trip> trips = new ArrayList<>();
+            TrafficGenerator generator = new TrafficGenerator(TrafficPattern.UP_PEAK, 0, floors, rate,
+                    Math.round(minutes * 60_000), 31);
+            for (Trip trip = new Trip(); generator.next(trip); trip = new Trip()) {
+                trips.add(trip);
+            }
+            for (String dispatcher : new String[]{"eta", "destination"}) {
+                for (String bypass : new String[]{"none", "0.8"}) {
+                    String spec = "floors 0 " + floors + "\n"
+                            + "dispatcher " + dispatcher + "\n"
+                            + "cars " + cars + " start=0 capacity=" + capacity + " bypass=" + bypass + "\n";
+                    run(rate + "/min " + dispatcher + " bypass=" + bypass, spec, trips);
+                }
+            }
+        }
+    }
+
+    static void run(String name, String spec, List<Trip> trips) {
+        SimulationEngine engine = new SimulationEngine(BuildingLoader.fromString(spec));
+        for (Trip trip : trips) {
+            engine.schedulePassenger(trip.time, trip.origin, trip.destination);
+        }
+        SimulationStats stats = engine.run();
+        System.out.printf("%-34s delivered=%d throughput=%.0f/h avgWait=%.1fs p99Wait=%.1fs avgRide=%.1fs%n",
+                name, stats.passengersDelivered, stats.throughputPerHour(), stats.averageWaitTime() / 1000,
+                stats.waitTimes.percentile(99) / 1000.0, stats.averageRideTime() / 1000);
+    }
+}
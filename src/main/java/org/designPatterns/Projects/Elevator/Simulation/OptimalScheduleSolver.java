@@ -0,0 +1,369 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Algorithm.HallCallBoard;
+import org.designPatterns.Projects.Elevator.Algorithm.ScriptedDispatcher;
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.designPatterns.Projects.Elevator.Traffic.Trip;
+
+import java.io.Serial;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Offline branch and bound for the best hall-call assignment on a small trace.
+A schedule is the list of cars, in call order, that each new hall call goes to (or every car at once, as broadcast
+dispatch does). A schedule is scored by running the trace through SimulationEngine with a ScriptedDispatcher, so the
+optimum and the real dispatchers are measured by the same simulation, scheduler and travel times.
+The search replays a schedule prefix until the next new call and then tries every car for it, best ETA first.
+A branch is cut when:
+    bound     the wait (or journey time) passengers have already built up reaches the best total found so far;
+              waits only grow, so nothing below the branch can do better
+    memo      another branch reached exactly the same building state, at the same point in the same event, having
+              built up no more cost; the future from equal states is equal, so this branch cannot win
+States are remembered as two independent 64-bit hashes. The first splitDepth levels fork into ForkJoin tasks that
+share the best total and the memo, so the search spreads over every core.
+*/
+public class OptimalScheduleSolver {
+    public enum Objective { WAIT, JOURNEY }
+
+    final String buildingSpec;
+    final List<Trip> trips;
+    final Objective objective;
+    // Lowest total found so far in virtual milliseconds; starts at the bound given, e.g. the best dispatcher's total
+    final AtomicLong best;
+    private int[] bestScript;
+    final Map<StateKey, Long> memo = new ConcurrentHashMap<>();
+
+    public int splitDepth = 4;
+    public int maxMemoEntries = 4_000_000;
+    public final LongAdder nodes = new LongAdder();
+    public final LongAdder boundCuts = new LongAdder();
+    public final LongAdder memoCuts = new LongAdder();
+
+    // upperBound is the total of a schedule known to be possible; only strictly better schedules are looked for
+    public OptimalScheduleSolver(String buildingSpec, List<Trip> trips, Objective objective, long upperBound) {
+        this.buildingSpec = buildingSpec;
+        this.trips = trips;
+        this.objective = objective;
+        this.best = new AtomicLong(upperBound);
+    }
+
+    // Returns the lowest total cost, which is the upper bound itself if nothing beats it
+    public long solve(ForkJoinPool pool) {
+        pool.invoke(new Search(new int[0]));
+        return best.get();
+    }
+
+    // Car per new hall call of the best schedule found, null if none beat the upper bound
+    public synchronized int[] bestScript() {
+        return bestScript;
+    }
+
+    // Runs a schedule that covers every call and returns its total
+    public long cost(int[] script) {
+        Node node = replay(script);
+        if (node.options != null) {
+            throw new IllegalArgumentException("Script of " + script.length + " calls ends before the trace does");
+        }
+        return node.cost;
+    }
+
+    class Search extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        final int[] script;
+
+        Search(int[] script) {
+            this.script = script;
+        }
+
+        @Override
+        protected void compute() {
+            if (script.length >= splitDepth) {
+                explore(script);
+                return;
+            }
+            Node node = expand(script);
+            if (node == null) {
+                return;
+            }
+            List<Search> children = new ArrayList<>(node.options.length);
+            for (int car : node.options) {
+                children.add(new Search(extend(script, car)));
+            }
+            invokeAll(children);
+        }
+    }
+
+    void explore(int[] script) {
+        Node node = expand(script);
+        if (node == null) {
+            return;
+        }
+        for (int car : node.options) {
+            explore(extend(script, car));
+        }
+    }
+
+    // Replays the script and returns the call it stops at, or null when the branch is finished or cut
+    Node expand(int[] script) {
+        nodes.increment();
+        Node node = replay(script);
+        if (node.options == null) {
+            long total = node.cost;
+            if (total < best.get()) {
+                synchronized (this) {
+                    if (total < best.get()) {
+                        best.set(total);
+                        bestScript = script;
+                    }
+                }
+            }
+            return null;
+        }
+        if (node.cost >= best.get()) {
+            boundCuts.increment();
+            return null;
+        }
+        if (!remember(node.key, node.cost)) {
+            memoCuts.increment();
+            return null;
+        }
+        return node;
+    }
+
+    // Records the cost at which a state was reached; false if it was reached as cheaply before
+    boolean remember(StateKey key, long cost) {
+        while (true) {
+            Long previous = memo.get(key);
+            if (previous == null) {
+                if (memo.size() >= maxMemoEntries || memo.putIfAbsent(key, cost) == null) {
+                    return true;
+                }
+            } else if (previous <= cost) {
+                return false;
+            } else if (memo.replace(key, previous, cost)) {
+                return true;
+            }
+        }
+    }
+
+    static int[] extend(int[] script, int car) {
+        int[] extended = Arrays.copyOf(script, script.length + 1);
+        extended[script.length] = car;
+        return extended;
+    }
+
+    // A replayed schedule: the total so far and, if it stopped at a new call, the cars to try for it and the state
+    static final class Node {
+        long cost;
+        int[] options;
+        StateKey key;
+    }
+
+    Node replay(int[] script) {
+        Building building = BuildingLoader.fromString(buildingSpec);
+        ScriptedDispatcher dispatcher = new ScriptedDispatcher(building.registry);
+        dispatcher.script = script;
+        building.useDispatcher(dispatcher);
+        SimulationEngine engine = new SimulationEngine(building);
+        Map<Passenger, Integer> ids = new IdentityHashMap<>();
+        for (Trip trip : trips) {
+            ids.put(engine.addPassenger(trip.time, trip.origin, trip.destination), ids.size());
+        }
+
+        Node node = new Node();
+        try {
+            engine.run();
+        } catch (ScriptedDispatcher.EndOfScript end) {
+            node.cost = accrued(engine, ids);
+            node.options = options(engine, dispatcher);
+            node.key = key(engine, dispatcher, ids);
+            return node;
+        }
+        if (engine.stats.passengersDelivered != trips.size()) {
+            throw new IllegalStateException("Only " + engine.stats.passengersDelivered + " of " + trips.size() + " delivered");
+        }
+        node.cost = objective == Objective.WAIT ? engine.stats.totalWaitTime : engine.stats.totalJourneyTime;
+        return node;
+    }
+
+    // Cost built up by now: waits (or journeys) of passengers who are done, plus the time so far of those still waiting
+    // (or still on their way)
+    long accrued(SimulationEngine engine, Map<Passenger, Integer> ids) {
+        long total = objective == Objective.WAIT ? 0 : engine.stats.totalJourneyTime;
+        for (Passenger passenger : ids.keySet()) {
+            if (objective == Objective.WAIT) {
+                total += passenger.waited;
+            }
+        }
+        for (int floor = 0; floor < engine.waitingUp.length; floor++) {
+            for (Direction direction : Direction.values()) {
+                ArrayDeque<Passenger> waiting = engine.waitingUp[floor] == null ? null : engine.waitingAt(floor, direction);
+                if (waiting == null) {
+                    continue;
+                }
+                for (Passenger passenger : waiting) {
+                    total += engine.now - (objective == Objective.WAIT ? passenger.arrivalTime : passenger.journeyStart);
+                }
+            }
+        }
+        if (objective == Objective.JOURNEY) {
+            for (List<Passenger> riders : engine.riders) {
+                for (Passenger passenger : riders) {
+                    total += engine.now - passenger.journeyStart;
+                }
+            }
+        }
+        return total;
+    }
+
+    // Cars serving the stopped call's floor, best ETA first, then all of them at once
+    static int[] options(SimulationEngine engine, ScriptedDispatcher dispatcher) {
+        int floor = dispatcher.stoppedFloor;
+        Direction direction = dispatcher.stoppedDirection;
+        List<ElevatorController> cars = new ArrayList<>();
+        for (ElevatorController controller : engine.controllers) {
+            controller.drainInbox();
+            if (controller.elevatorCar.serves(floor)) {
+                cars.add(controller);
+            }
+        }
+        long[] eta = new long[cars.size()];
+        for (int i = 0; i < cars.size(); i++) {
+            ElevatorController controller = cars.get(i);
+            eta[i] = controller.scheduler.estimateArrival(controller, floor, direction);
+        }
+        Integer[] order = new Integer[cars.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(eta[a], eta[b]));
+        int[] options = new int[cars.size() > 1 ? cars.size() + 1 : cars.size()];
+        for (int i = 0; i < order.length; i++) {
+            options[i] = cars.get(order[i]).elevatorCar.id;
+        }
+        if (cars.size() > 1) {
+            options[cars.size()] = ScriptedDispatcher.EVERY_CAR;
+        }
+        return options;
+    }
+
+    // Everything the rest of the run depends on: the call being allocated, the event it came from, every car and its
+    // stops, riders and waiting passengers in order, lit buttons and the live events still to come
+    static StateKey key(SimulationEngine engine, ScriptedDispatcher dispatcher, Map<Passenger, Integer> ids) {
+        StateKey.Builder key = new StateKey.Builder();
+        key.add(engine.now).add(dispatcher.stoppedFloor).add(dispatcher.stoppedDirection.ordinal());
+        Event current = engine.current;
+        key.add(current.type.ordinal()).add(current.car).add(current.floor).add(id(ids, current.passenger));
+
+        for (int car = 0; car < engine.controllers.size(); car++) {
+            ElevatorController controller = engine.controllers.get(car);
+            ElevatorCar elevatorCar = controller.elevatorCar;
+            key.add(elevatorCar.currentFloor).add(elevatorCar.elevatorDirection.ordinal())
+                    .add(elevatorCar.elevatorState.ordinal()).add(elevatorCar.load).add(elevatorCar.booked.get());
+            key.add(engine.carIdle[car] ? 1 : 0).add(engine.carParking[car] ? 1 : 0)
+                    .add(engine.legFrom[car]).add(engine.legTarget[car]).add(engine.legStart[car]);
+            add(key, controller.upMinPQ);
+            add(key, controller.downMaxPQ);
+            add(key, controller.stagedUp);
+            add(key, controller.stagedDown);
+            add(key, controller.carCalls);
+            for (Passenger passenger : engine.riders.get(car)) {
+                key.add(id(ids, passenger)).add(passenger.destination);
+            }
+            key.add(-1);
+        }
+
+        for (int floor = 0; floor < engine.waitingUp.length; floor++) {
+            if (engine.waitingUp[floor] == null) {
+                continue;
+            }
+            for (Direction direction : Direction.values()) {
+                key.add(floor);
+                for (Passenger passenger : engine.waitingAt(floor, direction)) {
+                    key.add(id(ids, passenger)).add(passenger.destination).add(passenger.assignedCar);
+                }
+            }
+        }
+
+        HallCallBoard board = dispatcher.hallCalls;
+        for (int cell = board.nextLit(0); cell != -1; cell = board.nextLit(cell + 1)) {
+            Direction direction = (cell & 1) == 0 ? Direction.UP : Direction.DOWN;
+            key.add(cell).add(board.owner(cell >>> 1, direction));
+        }
+        key.add(-1);
+
+        Event[] events = engine.eventQueue.toArray(new Event[0]);
+        Arrays.sort(events);
+        for (Event event : events) {
+            // A cancelled arrival does nothing when it comes up
+            if (event.type == EventType.FLOOR_REACHED && event.sequence != engine.legArrival[event.car]) {
+                continue;
+            }
+            key.add(event.time).add(event.type.ordinal()).add(event.car).add(event.floor).add(id(ids, event.passenger));
+        }
+        return key.build();
+    }
+
+    private static void add(StateKey.Builder key, FloorStopSet stops) {
+        for (int floor = stops.first(); floor != -1; floor = stops.nextAtOrAbove(floor + 1)) {
+            key.add(floor);
+        }
+        key.add(-1);
+    }
+
+    private static int id(Map<Passenger, Integer> ids, Passenger passenger) {
+        return passenger == null ? -1 : ids.get(passenger);
+    }
+
+    static final class StateKey {
+        final long first;
+        final long second;
+
+        StateKey(long first, long second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StateKey key && key.first == first && key.second == second;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(first);
+        }
+
+        static final class Builder {
+            private long first = 0x243F6A8885A308D3L;
+            private long second = 0x13198A2E03707344L;
+
+            Builder add(long value) {
+                first = Long.rotateLeft((first ^ value) * 0x9E3779B97F4A7C15L, 29);
+                second = (second + value) * 0xC2B2AE3D27D4EB4FL ^ (second >>> 31);
+                return this;
+            }
+
+            StateKey build() {
+                return new StateKey(first, second);
+            }
+        }
+    }
+}
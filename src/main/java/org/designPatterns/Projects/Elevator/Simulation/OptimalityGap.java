@@ -0,0 +1,109 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficGenerator;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficPattern;
+import org.designPatterns.Projects.Elevator.Traffic.Trip;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+How far the online dispatchers are from the best possible hall-call assignment. Short traces of every traffic pattern
+run through a 10-floor, 3-car building once per dispatcher; OptimalScheduleSolver then finds the assignment with the
+lowest total wait (or journey time) for the same trace, using the best dispatcher's total as its first bound. The gap
+is how much longer a dispatcher's passengers spent than they had to, in seconds per passenger (+s/p).
+Destination dispatch is left out: it chooses a car per passenger rather than per hall call, which is not the choice
+the solver searches over.
+Usage: OptimalityGap [wait|journey] [traces per pattern] [trips per trace]
+*/
+public class OptimalityGap {
+    static final String[] DISPATCHERS = {"broadcast", "oddeven", "eta"};
+    static final String BUILDING = "floors 0 9\ncars 3 start=0\n";
+
+    public static void main(String[] args) {
+        OptimalScheduleSolver.Objective objective = args.length > 0
+                ? OptimalScheduleSolver.Objective.valueOf(args[0].toUpperCase()) : OptimalScheduleSolver.Objective.WAIT;
+        int traces = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int tripsPerTrace = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        long[] excess = new long[DISPATCHERS.length];
+        int[] optimal = new int[DISPATCHERS.length];
+        long optimumTotal = 0;
+        int solved = 0;
+        int passengers = 0;
+        try {
+            System.out.printf("10 floors, 3 cars, %d trips per trace, total %s time in seconds, %d threads%n",
+                    tripsPerTrace, objective.name().toLowerCase(), pool.getParallelism());
+            for (TrafficPattern pattern : TrafficPattern.values()) {
+                for (int trace = 0; trace < traces; trace++) {
+                    List<Trip> trips = trace(pattern, tripsPerTrace, 1_000L * pattern.ordinal() + trace);
+                    long[] costs = new long[DISPATCHERS.length];
+                    long bound = Long.MAX_VALUE;
+                    for (int i = 0; i < DISPATCHERS.length; i++) {
+                        costs[i] = cost(DISPATCHERS[i], trips, objective);
+                        bound = Math.min(bound, costs[i]);
+                    }
+
+                    // One above the best dispatcher, so a schedule that only ties it is still found and checked
+                    OptimalScheduleSolver solver = new OptimalScheduleSolver(BUILDING, trips, objective, bound + 1);
+                    long start = System.nanoTime();
+                    long best = solver.solve(pool);
+                    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                    if (solver.bestScript() == null || solver.cost(solver.bestScript()) != best) {
+                        throw new IllegalStateException("No schedule reproduces the optimum of " + best);
+                    }
+
+                    StringBuilder line = new StringBuilder(String.format("%-11s #%d optimum %7.1f ",
+                            pattern.name().toLowerCase(), trace, best / 1000.0));
+                    for (int i = 0; i < DISPATCHERS.length; i++) {
+                        excess[i] += costs[i] - best;
+                        if (costs[i] == best) {
+                            optimal[i]++;
+                        }
+                        line.append(String.format(" %s %7.1f (+%4.1fs/p)", DISPATCHERS[i], costs[i] / 1000.0,
+                                (costs[i] - best) / 1000.0 / trips.size()));
+                    }
+                    line.append(String.format("  %,d nodes, %,d bound / %,d memo cuts, %d ms", solver.nodes.sum(),
+                            solver.boundCuts.sum(), solver.memoCuts.sum(), elapsedMillis));
+                    System.out.println(line);
+                    optimumTotal += best;
+                    passengers += trips.size();
+                    solved++;
+                }
+            }
+            // Totals rather than a mean of ratios, which a trace where the optimum is close to nothing would swamp
+            for (int i = 0; i < DISPATCHERS.length; i++) {
+                System.out.printf("%-10s %5.1f s more per passenger, %5.1f%% over the optimum, optimal on %d of %d traces%n",
+                        DISPATCHERS[i], excess[i] / 1000.0 / passengers, 100.0 * excess[i] / optimumTotal, optimal[i], solved);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static List<Trip> trace(TrafficPattern pattern, int count, long seed) {
+        // Six passengers a minute keeps three cars busy without piling calls up
+        TrafficGenerator generator = new TrafficGenerator(pattern, 0, 9, 6, Long.MAX_VALUE, seed);
+        List<Trip> trips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Trip trip = new Trip();
+            if (!generator.next(trip)) {
+                break;
+            }
+            trips.add(trip);
+        }
+        return trips;
+    }
+
+    static long cost(String dispatcher, List<Trip> trips, OptimalScheduleSolver.Objective objective) {
+        SimulationEngine engine = new SimulationEngine(BuildingLoader.fromString(BUILDING + "dispatcher " + dispatcher + "\n"));
+        for (Trip trip : trips) {
+            engine.schedulePassenger(trip.time, trip.origin, trip.destination);
+        }
+        SimulationStats stats = engine.run();
+        return objective == OptimalScheduleSolver.Objective.WAIT ? stats.totalWaitTime : stats.totalJourneyTime;
+    }
+}
@@ -0,0 +1,38 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficGenerator;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficPattern;
+import org.designPatterns.Projects.Elevator.Traffic.Trip;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Replays each traffic pattern once per parking policy and prints the wait distribution and floors travelled.
+Parking only matters while cars fall idle between calls, so the default load is light.
+Usage: ParkingComparison [cars] [floors] [passengers per minute] [hours]
+*/
+public class ParkingComparison {
+    public static void main(String[] args) {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 3;
+        double hours = args.length > 3 ? Double.parseDouble(args[3]) : 4;
+
+        System.out.println(cars + " cars, floors 0-" + floors + ", " + rate + " passengers/min for " + hours + "h");
+        for (TrafficPattern pattern : TrafficPattern.values()) {
+            List<Trip> trips = new ArrayList<>();
+            TrafficGenerator generator = new TrafficGenerator(pattern, 0, floors, rate, Math.round(hours * 3_600_000), 29);
+            for (Trip trip = new Trip(); generator.next(trip); trip = new Trip()) {
+                trips.add(trip);
+            }
+            for (String parking : BuildingLoader.PARKING) {
+                String spec = "floors 0 " + floors + "\n"
+                        + "parking " + parking + "\n"
+                        + "cars " + cars + " start=0\n";
+                SchedulerComparison.run(pattern + "/" + parking, spec, trips);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+public class Passenger {
+    // Floors of the current leg; a trip no single car serves changes cars at a lobby on the way
+    public int origin;
+    public int destination;
+    public int finalDestination;
+    public long journeyStart;
+    public long arrivalTime;
+    public long boardTime;
+    // Time spent waiting on every leg so far
+    public long waited;
+    // Car id the destination panel assigned, -1 when any car may be boarded
+    public int assignedCar = -1;
+    // Came from a TripSource, so its arrival pulls the next trip
+    boolean streamed;
+
+    public Passenger(int origin, int destination) {
+        this.origin = origin;
+        this.destination = destination;
+        this.finalDestination = destination;
+    }
+
+    public Direction direction() {
+        return destination > origin ? Direction.UP : Direction.DOWN;
+    }
+}
@@ -0,0 +1,57 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Algorithm.CallReassigner;
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficGenerator;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficPattern;
+import org.designPatterns.Projects.Elevator.Traffic.Trip;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Replays the same traffic with hall calls staying with the car they were first given to, and with a reassignment pass
+every two seconds that moves calls to cars that will get there at least ten seconds sooner.
+Usage: ReassignmentComparison [cars] [floors] [passengers per minute] [minutes]
+*/
+public class ReassignmentComparison {
+    public static void main(String[] args) {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 8;
+        double minutes = args.length > 3 ? Double.parseDouble(args[3]) : 120;
+
+        System.out.println(cars + " cars, floors 0-" + floors + ", " + rate + " passengers/min for " + minutes + " minutes");
+        for (TrafficPattern pattern : TrafficPattern.values()) {
+            List<Trip> trips = new ArrayList<>();
+            TrafficGenerator generator = new TrafficGenerator(pattern, 0, floors, rate, Math.round(minutes * 60_000), 11);
+            for (Trip trip = new Trip(); generator.next(trip); trip = new Trip()) {
+                trips.add(trip);
+            }
+            for (String dispatcher : new String[]{"oddeven", "eta"}) {
+                for (String reassign : new String[]{"", "reassign 2 gain=10\n"}) {
+                    String spec = "floors 0 " + floors + "\n"
+                            + "dispatcher " + dispatcher + "\n"
+                            + reassign
+                            + "cars " + cars + " start=0\n";
+                    run(pattern + " " + dispatcher + (reassign.isEmpty() ? " fixed" : " reassign"), spec, trips);
+                }
+            }
+        }
+    }
+
+    static void run(String name, String spec, List<Trip> trips) {
+        Building building = BuildingLoader.fromString(spec);
+        SimulationEngine engine = new SimulationEngine(building);
+        for (Trip trip : trips) {
+            engine.schedulePassenger(trip.time, trip.origin, trip.destination);
+        }
+        SimulationStats stats = engine.run();
+        CallReassigner reassigner = building.externalDispatcher.reassigner;
+        long moved = reassigner != null ? reassigner.reassignedCalls : 0;
+        System.out.printf("%-28s avgWait=%.1fs p99Wait=%.1fs maxWait=%.1fs avgRide=%.1fs floorsTravelled=%d reassigned=%d%n",
+                name, stats.averageWaitTime() / 1000, stats.waitTimes.percentile(99) / 1000.0,
+                stats.maxWaitTime / 1000.0, stats.averageRideTime() / 1000, stats.floorsTravelled, moved);
+    }
+}
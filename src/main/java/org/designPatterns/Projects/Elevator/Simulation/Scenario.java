@@ -0,0 +1,23 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Traffic.TrafficPattern;
+
+// One what-if run for the capacity planner: a building spec plus the traffic to push through it
+public class Scenario {
+    public final String name;
+    public final String buildingSpec;
+    public final TrafficPattern pattern;
+    public final double passengersPerMinute;
+    public final long durationMillis;
+    public final long seed;
+
+    public Scenario(String name, String buildingSpec, TrafficPattern pattern, double passengersPerMinute,
+                    long durationMillis, long seed) {
+        this.name = name;
+        this.buildingSpec = buildingSpec;
+        this.pattern = pattern;
+        this.passengersPerMinute = passengersPerMinute;
+        this.durationMillis = durationMillis;
+        this.seed = seed;
+    }
+}
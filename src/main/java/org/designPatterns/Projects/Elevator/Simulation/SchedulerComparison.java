@@ -0,0 +1,50 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficGenerator;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficPattern;
+import org.designPatterns.Projects.Elevator.Traffic.Trip;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Replays the same requests once per StopScheduler and prints floors travelled and the wait distribution.
+Usage: SchedulerComparison [cars] [floors] [passengers per minute] [pattern]
+*/
+public class SchedulerComparison {
+    public static void main(String[] args) {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 30;
+        TrafficPattern pattern = args.length > 3 ? TrafficPattern.valueOf(args[3]) : TrafficPattern.INTER_FLOOR;
+
+        List<Trip> trips = new ArrayList<>();
+        TrafficGenerator generator = new TrafficGenerator(pattern, 0, floors, rate, 3_600_000, 23);
+        for (Trip trip = new Trip(); generator.next(trip); trip = new Trip()) {
+            trips.add(trip);
+        }
+
+        System.out.println(cars + " cars, floors 0-" + floors + ", " + trips.size() + " " + pattern + " trips");
+        for (String dispatcher : new String[]{"eta", "broadcast"}) {
+            for (String scheduler : BuildingLoader.SCHEDULERS.keySet()) {
+                String spec = "floors 0 " + floors + "\n"
+                        + "dispatcher " + dispatcher + "\n"
+                        + "scheduler " + scheduler + "\n"
+                        + "cars " + cars + " start=0\n";
+                run(dispatcher + "/" + scheduler, spec, trips);
+            }
+        }
+    }
+
+    static void run(String name, String spec, List<Trip> trips) {
+        SimulationEngine engine = new SimulationEngine(BuildingLoader.fromString(spec));
+        for (Trip trip : trips) {
+            engine.schedulePassenger(trip.time, trip.origin, trip.destination);
+        }
+        SimulationStats stats = engine.run();
+        System.out.printf("%-18s floorsTravelled=%d avgWait=%.1fs p99Wait=%.1fs maxWait=%.1fs avgRide=%.1fs p99Ride=%.1fs%n",
+                name, stats.floorsTravelled, stats.averageWaitTime() / 1000, stats.waitTimes.percentile(99) / 1000.0,
+                stats.maxWaitTime / 1000.0, stats.averageRideTime() / 1000, stats.rideTimes.percentile(99) / 1000.0);
+    }
+}
@@ -0,0 +1,474 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Algorithm.CallReassigner;
+import org.designPatterns.Projects.Elevator.Algorithm.ExternalDispatcher;
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Components.ElevatorCar;
+import org.designPatterns.Projects.Elevator.Components.Floor;
+import org.designPatterns.Projects.Elevator.Components.TravelTimeModel;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Controller.FloorStopSet;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.designPatterns.Projects.Elevator.State.ElevatorState;
+import org.designPatterns.Projects.Elevator.Traffic.Trip;
+import org.designPatterns.Projects.Elevator.Traffic.TripSource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/*
+Discrete-event engine for the elevator system.
+Instead of walking a car floor by floor in real time, every change (a passenger arriving, a car reaching a floor,
+a door opening or closing) is an event on a virtual clock. The engine pops the earliest event, applies it to the
+existing Floor / ElevatorController / ElevatorCar objects and schedules whatever follows from it.
+Time is measured in virtual milliseconds.
+*/
+public class SimulationEngine {
+    List<ElevatorController> controllers;
+    Floor[] floorsByNumber;
+    PriorityQueue<Event> eventQueue = new PriorityQueue<>();
+    long now;
+    long sequence;
+    // Event being handled, for tools that stop the engine part way through one
+    Event current;
+    boolean started;
+
+    boolean[] carIdle;
+    boolean[] carParking;
+    // Current leg of every moving car, so a parking trip can be cut short and its old arrival ignored
+    int[] legFrom;
+    int[] legTarget;
+    long[] legStart;
+    long[] legArrival;
+    List<List<Passenger>> riders = new ArrayList<>();
+    ArrayDeque<Passenger>[] waitingUp;
+    ArrayDeque<Passenger>[] waitingDown;
+
+    TripSource tripSource;
+    Trip nextTrip = new Trip();
+    // Runs a pass every reassigner.period virtual milliseconds while anything else is still scheduled
+    CallReassigner reassigner;
+    // Round trips are timed from departures at the lowest floor
+    int lobby = -1;
+    long[] lastLobbyDeparture;
+    // Lobby where a trip from origin to destination changes cars, by origin * floors + destination
+    Map<Long, Integer> transferFloors = new HashMap<>();
+
+    public SimulationStats stats = new SimulationStats();
+
+    public SimulationEngine(Building building) {
+        this(building.controllers, building.getAllFloorList());
+    }
+
+    public SimulationEngine(List<ElevatorController> controllers, List<Floor> floors) {
+        this.controllers = controllers;
+
+        int topFloor = 0;
+        for (Floor floor : floors) {
+            topFloor = Math.max(topFloor, floor.floorNumber);
+        }
+        floorsByNumber = new Floor[topFloor + 1];
+        waitingUp = queues(topFloor + 1);
+        waitingDown = queues(topFloor + 1);
+        for (Floor floor : floors) {
+            floorsByNumber[floor.floorNumber] = floor;
+            lobby = lobby == -1 ? floor.floorNumber : Math.min(lobby, floor.floorNumber);
+            waitingUp[floor.floorNumber] = new ArrayDeque<>();
+            waitingDown[floor.floorNumber] = new ArrayDeque<>();
+            ExternalDispatcher dispatcher = floor.externalDispatcher;
+            if (dispatcher != null && dispatcher.reassigner != null) {
+                reassigner = dispatcher.reassigner;
+            }
+        }
+
+        carIdle = new boolean[controllers.size()];
+        carParking = new boolean[controllers.size()];
+        legFrom = new int[controllers.size()];
+        legTarget = new int[controllers.size()];
+        legStart = new long[controllers.size()];
+        legArrival = new long[controllers.size()];
+        lastLobbyDeparture = new long[controllers.size()];
+        for (int i = 0; i < controllers.size(); i++) {
+            carIdle[i] = true;
+            lastLobbyDeparture[i] = -1;
+            riders.add(new ArrayList<>());
+        }
+    }
+
+    // A generic array has to be created raw; it never leaves the engine and only ever holds passenger queues
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArrayDeque<Passenger>[] queues(int floors) {
+        return new ArrayDeque[floors];
+    }
+
+    // Puts the building on the virtual clock when the engine first runs, not in the constructor, so no component is
+    // handed an engine that is still being built
+    private void start() {
+        started = true;
+        for (Floor floor : floorsByNumber) {
+            // Demand is learnt in virtual time too
+            if (floor != null && floor.externalDispatcher != null && floor.externalDispatcher.demand != null) {
+                floor.externalDispatcher.demand.clock = this::now;
+            }
+        }
+        for (ElevatorController controller : controllers) {
+            // Car metrics are timed in virtual milliseconds
+            controller.metrics.clock = this::now;
+        }
+        if (reassigner != null) {
+            schedule(reassigner.period, EventType.REASSIGN, -1, -1, null);
+        }
+    }
+
+    public long now() {
+        return now;
+    }
+
+    public void schedulePassenger(long time, int origin, int destination) {
+        addPassenger(time, origin, destination);
+    }
+
+    Passenger addPassenger(long time, int origin, int destination) {
+        if (origin == destination) {
+            throw new IllegalArgumentException("Passenger origin and destination are both floor " + origin);
+        }
+        int firstStop = destination;
+        if (carServing(origin, destination) == null) {
+            firstStop = transferFloor(origin, destination);
+            if (firstStop == -1) {
+                throw new IllegalArgumentException("No cars connect floor " + origin + " and floor " + destination);
+            }
+        }
+        Passenger passenger = new Passenger(origin, firstStop);
+        passenger.finalDestination = destination;
+        schedule(time, EventType.PASSENGER_ARRIVAL, -1, origin, passenger);
+        return passenger;
+    }
+
+    // Streams passengers from the source: only the next trip is on the event queue, the following one is read when it arrives
+    public void feed(TripSource source) {
+        if (tripSource != null) {
+            throw new IllegalStateException("A trip source is already being fed");
+        }
+        tripSource = source;
+        scheduleNextTrip();
+    }
+
+    void scheduleNextTrip() {
+        if (!tripSource.next(nextTrip)) {
+            tripSource = null;
+            return;
+        }
+        addPassenger(nextTrip.time, nextTrip.origin, nextTrip.destination).streamed = true;
+    }
+
+    // Processes events until the queue is empty
+    public SimulationStats run() {
+        return runUntil(Long.MAX_VALUE);
+    }
+
+    // Processes every event up to and including endTime
+    public SimulationStats runUntil(long endTime) {
+        if (!started) {
+            start();
+        }
+        while (!eventQueue.isEmpty() && eventQueue.peek().time <= endTime) {
+            Event event = eventQueue.poll();
+            current = event;
+            now = event.time;
+            stats.eventsProcessed++;
+            switch (event.type) {
+                case PASSENGER_ARRIVAL -> onPassengerArrival(event.passenger);
+                case FLOOR_REACHED -> onFloorReached(event.car, event.floor, event.sequence);
+                case DOOR_OPEN -> onDoorOpen(event.car);
+                case DOOR_CLOSE -> onDoorClose(event.car);
+                case REASSIGN -> onReassign();
+            }
+        }
+        stats.endTime = now;
+        return stats;
+    }
+
+    void schedule(long time, EventType type, int car, int floor, Passenger passenger) {
+        eventQueue.offer(new Event(time, sequence++, type, car, floor, passenger));
+    }
+
+    void onPassengerArrival(Passenger passenger) {
+        if (passenger.streamed) {
+            scheduleNextTrip();
+        }
+        passenger.journeyStart = now;
+        passenger.arrivalTime = now;
+        Direction direction = passenger.direction();
+        waitingAt(passenger.origin, direction).offer(passenger);
+        // Hall calls go through the destination panel; dispatchers that do not group by destination leave it unassigned
+        passenger.assignedCar = floorsByNumber[passenger.origin].pressButton(passenger.destination);
+        wakeIdleCars();
+    }
+
+    void onFloorReached(int car, int floor, long arrival) {
+        if (arrival != legArrival[car]) {
+            // The leg was cut short and this arrival no longer happens
+            return;
+        }
+        ElevatorCar elevatorCar = controllers.get(car).elevatorCar;
+        stats.floorsTravelled += Math.abs(floor - elevatorCar.currentFloor);
+        elevatorCar.arriveAt(floor);
+        if (carParking[car]) {
+            // Nobody asked for this floor: serve whatever came in on the way, or wait here with the doors shut
+            carParking[car] = false;
+            dispatchNextStop(car);
+            return;
+        }
+        schedule(now, EventType.DOOR_OPEN, car, floor, null);
+    }
+
+    void onDoorOpen(int car) {
+        ElevatorController controller = controllers.get(car);
+        ElevatorCar elevatorCar = controller.elevatorCar;
+        int floor = elevatorCar.currentFloor;
+        elevatorCar.elevatorDoor.openDoor();
+        controller.arrivedAt(floor);
+        controller.metrics.doorOpened();
+
+        // Riders for this floor get off
+        List<Passenger> inCar = riders.get(car);
+        for (int i = inCar.size() - 1; i >= 0; i--) {
+            Passenger passenger = inCar.get(i);
+            if (passenger.destination == floor) {
+                if (floor == passenger.finalDestination) {
+                    stats.recordDelivery(passenger, now);
+                } else {
+                    changeCars(passenger, floor);
+                }
+                elevatorCar.alight();
+                inCar.set(i, inCar.get(inCar.size() - 1));
+                inCar.remove(inCar.size() - 1);
+            }
+        }
+
+        // Everyone waiting here whose destination this car serves gets on and presses their destination button
+        for (Direction direction : Direction.values()) {
+            ArrayDeque<Passenger> waiting = waitingAt(floor, direction);
+            for (int i = waiting.size(); i > 0; i--) {
+                Passenger passenger = waiting.poll();
+                if (!elevatorCar.serves(passenger.destination)
+                        || (passenger.assignedCar != -1 && passenger.assignedCar != elevatorCar.id)
+                        || !elevatorCar.board()) {
+                    waiting.offer(passenger);
+                    continue;
+                }
+                passenger.boardTime = now;
+                passenger.waited += now - passenger.arrivalTime;
+                inCar.add(passenger);
+                controller.submitInternalRequest(passenger.destination, passenger.direction());
+            }
+        }
+
+        schedule(now + elevatorCar.travelTimeModel.doorDwellTime, EventType.DOOR_CLOSE, car, floor, null);
+    }
+
+    void onDoorClose(int car) {
+        ElevatorController controller = controllers.get(car);
+        ElevatorCar elevatorCar = controller.elevatorCar;
+        elevatorCar.elevatorDoor.closeDoor();
+        controller.metrics.doorClosed();
+        int floor = elevatorCar.currentFloor;
+        if (floor == lobby) {
+            if (lastLobbyDeparture[car] != -1) {
+                stats.roundTrips.record(now - lastLobbyDeparture[car]);
+            }
+            lastLobbyDeparture[car] = now;
+        }
+        long leg = legArrival[car];
+        dispatchNextStop(car);
+        walkOver(elevatorCar, floor);
+        if (elevatorCar.isFull() && legArrival[car] != leg) {
+            callAgain(elevatorCar, floor);
+        }
+        wakeIdleCars();
+    }
+
+    // Those left waiting whose destination the car does not serve walk over to a bank that does and press its button,
+    // through the floor's panel like any other hall call, once the car has pulled away so it is not the car sent back.
+    // Assigned passengers and those a full car left behind keep waiting.
+    void walkOver(ElevatorCar elevatorCar, int floor) {
+        for (Direction direction : Direction.values()) {
+            for (Passenger passenger : waitingAt(floor, direction)) {
+                if (passenger.assignedCar == -1 && !elevatorCar.serves(passenger.destination)) {
+                    passenger.assignedCar = floorsByNumber[floor].pressButton(passenger.destination);
+                    // Keep the inboxes from filling up when a crowd walks over at once
+                    for (ElevatorController controller : controllers) {
+                        controller.drainInbox();
+                    }
+                }
+            }
+        }
+    }
+
+    // Passengers a full car had to leave behind press the button again once it has pulled away, so the call is not
+    // answered again by the car that could not take them. Without destination dispatch one press per direction is enough.
+    void callAgain(ElevatorCar elevatorCar, int floor) {
+        for (Direction direction : Direction.values()) {
+            for (Passenger passenger : waitingAt(floor, direction)) {
+                if (elevatorCar.serves(passenger.destination)
+                        && (passenger.assignedCar == -1 || passenger.assignedCar == elevatorCar.id)) {
+                    passenger.assignedCar = floorsByNumber[floor].pressButton(passenger.destination);
+                    // Keep the inboxes from filling up when a crowd presses at once
+                    for (ElevatorController controller : controllers) {
+                        controller.drainInbox();
+                    }
+                    if (passenger.assignedCar == -1) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    void onReassign() {
+        if (reassigner.reassignPass() > 0) {
+            wakeIdleCars();
+        }
+        if (!eventQueue.isEmpty()) {
+            schedule(now + reassigner.period, EventType.REASSIGN, -1, -1, null);
+        }
+    }
+
+    void wakeIdleCars() {
+        for (int car = 0; car < controllers.size(); car++) {
+            // The engine is the consumer for every car, so pick up what the dispatcher just published
+            ElevatorController controller = controllers.get(car);
+            controller.drainInbox();
+            if (carIdle[car] && controller.hasPendingRequests()) {
+                dispatchNextStop(car);
+            } else if (carParking[car] && controller.hasPendingRequests()) {
+                interruptParking(car);
+            }
+        }
+    }
+
+    void dispatchNextStop(int car) {
+        ElevatorController controller = controllers.get(car);
+        int nextFloor = controller.pollNextStop();
+        if (nextFloor == -1) {
+            nextFloor = controller.parkingMove();
+            if (nextFloor == -1) {
+                carIdle[car] = true;
+                controller.elevatorCar.elevatorState = ElevatorState.IDLE;
+                return;
+            }
+            carParking[car] = true;
+        }
+
+        carIdle[car] = false;
+        int distance = Math.abs(nextFloor - controller.elevatorCar.currentFloor);
+        if (distance == 0) {
+            schedule(now, EventType.DOOR_OPEN, car, nextFloor, null);
+        } else {
+            // Head towards the stop right away, so dispatchers and the scheduler see which way the car is going
+            controller.elevatorCar.elevatorState = ElevatorState.MOVING;
+            controller.elevatorCar.elevatorDirection = nextFloor > controller.elevatorCar.currentFloor ? Direction.UP : Direction.DOWN;
+            legFrom[car] = controller.elevatorCar.currentFloor;
+            legTarget[car] = nextFloor;
+            legStart[car] = now;
+            legArrival[car] = sequence;
+            schedule(now + controller.elevatorCar.travelTime(nextFloor), EventType.FLOOR_REACHED, car, nextFloor, null);
+        }
+    }
+
+    // A car on its way to park has been given work: stop at the next floor it can still stop at and go from there.
+    // That is the first floor a trip from the start of the leg would not have reached yet, arriving when such a trip would.
+    void interruptParking(int car) {
+        TravelTimeModel model = controllers.get(car).elevatorCar.travelTimeModel;
+        int step = legTarget[car] > legFrom[car] ? 1 : -1;
+        int floorsPassed = model.floorsWithin(now - legStart[car]) + 1;
+        int floor = legFrom[car] + step * floorsPassed;
+        if ((floor - legTarget[car]) * step >= 0) {
+            return;
+        }
+        legTarget[car] = floor;
+        legArrival[car] = sequence;
+        schedule(legStart[car] + model.travelTime(floorsPassed), EventType.FLOOR_REACHED, car, floor, null);
+    }
+
+    // The passenger got off at a lobby on the way and calls a car of the next bank
+    void changeCars(Passenger passenger, int floor) {
+        stats.transfers++;
+        passenger.origin = floor;
+        passenger.destination = carServing(floor, passenger.finalDestination) != null
+                ? passenger.finalDestination : transferFloor(floor, passenger.finalDestination);
+        passenger.arrivalTime = now;
+        waitingAt(floor, passenger.direction()).offer(passenger);
+        passenger.assignedCar = floorsByNumber[floor].pressButton(passenger.destination);
+    }
+
+    // Next floor to ride to on the way to destination when no car serves both: a lobby shared by a car serving origin
+    // and the next car of the fewest-changes chain of cars to destination, closest to a direct trip; -1 if none
+    int transferFloor(int origin, int destination) {
+        return transferFloors.computeIfAbsent((long) origin * floorsByNumber.length + destination, key -> {
+            int cars = controllers.size();
+            int[] previous = new int[cars];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int car = 0; car < cars; car++) {
+                previous[car] = -2;
+                if (controllers.get(car).elevatorCar.serves(origin)) {
+                    previous[car] = -1;
+                    queue.add(car);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int car = queue.poll();
+                ElevatorCar elevatorCar = controllers.get(car).elevatorCar;
+                if (elevatorCar.serves(destination)) {
+                    // Walk back to the second car of the chain and change to it where it meets the first
+                    int next = car;
+                    while (previous[previous[next]] != -1) {
+                        next = previous[next];
+                    }
+                    return closestSharedFloor(controllers.get(previous[next]).elevatorCar,
+                            controllers.get(next).elevatorCar, origin, destination);
+                }
+                for (int other = 0; other < cars; other++) {
+                    if (previous[other] == -2 && closestSharedFloor(elevatorCar, controllers.get(other).elevatorCar,
+                            origin, destination) != -1) {
+                        previous[other] = car;
+                        queue.add(other);
+                    }
+                }
+            }
+            return -1;
+        });
+    }
+
+    static int closestSharedFloor(ElevatorCar first, ElevatorCar second, int origin, int destination) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        FloorStopSet served = first.servedFloors();
+        for (int floor = served.first(); floor != -1; floor = served.nextAtOrAbove(floor + 1)) {
+            int distance = Math.abs(floor - origin) + Math.abs(destination - floor);
+            if (floor != origin && second.serves(floor) && distance < bestDistance) {
+                best = floor;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    ElevatorController carServing(int origin, int destination) {
+        for (ElevatorController controller : controllers) {
+            if (controller.elevatorCar.serves(origin) && controller.elevatorCar.serves(destination)) {
+                return controller;
+            }
+        }
+        return null;
+    }
+
+    ArrayDeque<Passenger> waitingAt(int floor, Direction direction) {
+        return direction == Direction.UP ? waitingUp[floor] : waitingDown[floor];
+    }
+}
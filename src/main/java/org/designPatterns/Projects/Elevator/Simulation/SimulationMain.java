@@ -0,0 +1,44 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.Metrics.ElevatorMBeans;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class SimulationMain {
+    public static void main(String[] args) throws IOException {
+        int passengers = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Building building = args.length > 1
+                ? BuildingLoader.load(Path.of(args[1]))
+                : BuildingLoader.loadResource("buildings/tower.building");
+
+        SimulationEngine engine = new SimulationEngine(building);
+        // Per-car metrics are also browsable over JMX while the simulation runs
+        ElevatorMBeans.registerAll(building);
+
+        // One passenger every 10 virtual seconds on average, between random floors
+        Random random = new Random(42);
+        int floors = building.topFloor() + 1;
+        long time = 0;
+        for (int i = 0; i < passengers; i++) {
+            time += random.nextInt(20_000);
+            int origin = random.nextInt(floors);
+            int destination = (origin + 1 + random.nextInt(floors - 1)) % floors;
+            engine.schedulePassenger(time, origin, destination);
+        }
+
+        long start = System.nanoTime();
+        SimulationStats stats = engine.run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Simulation of " + building.name + " finished: " + stats);
+        System.out.println("Wall time: " + elapsedMillis + " ms for " + stats.endTime / 1000 + " simulated seconds");
+        for (ElevatorController controller : building.registry.controllers()) {
+            System.out.println(controller.metrics);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Metrics.LatencyHistogram;
+
+public class SimulationStats {
+    public long passengersDelivered;
+    public long totalWaitTime;
+    public long totalRideTime;
+    public long maxWaitTime;
+    public long totalJourneyTime;
+    public long transfers;
+    public long floorsTravelled;
+    public long eventsProcessed;
+    public long endTime;
+    public final LatencyHistogram waitTimes = new LatencyHistogram();
+    public final LatencyHistogram rideTimes = new LatencyHistogram();
+    // Time from a car leaving the lowest floor to it leaving it again
+    public final LatencyHistogram roundTrips = new LatencyHistogram();
+
+    // Waits and rides of every leg add up; a transfer counts as riding
+    void recordDelivery(Passenger passenger, long now) {
+        long wait = passenger.waited;
+        long journey = now - passenger.journeyStart;
+        long ride = journey - wait;
+        passengersDelivered++;
+        totalWaitTime += wait;
+        totalRideTime += ride;
+        totalJourneyTime += journey;
+        maxWaitTime = Math.max(maxWaitTime, wait);
+        waitTimes.record(wait);
+        rideTimes.record(ride);
+    }
+
+    public double averageWaitTime() {
+        return passengersDelivered == 0 ? 0 : (double) totalWaitTime / passengersDelivered;
+    }
+
+    public double averageRideTime() {
+        return passengersDelivered == 0 ? 0 : (double) totalRideTime / passengersDelivered;
+    }
+
+    // Arrival at the hall to arrival at the final destination, transfers included
+    public double averageJourneyTime() {
+        return passengersDelivered == 0 ? 0 : (double) totalJourneyTime / passengersDelivered;
+    }
+
+    // Passengers delivered per simulated hour
+    public double throughputPerHour() {
+        return endTime == 0 ? 0 : passengersDelivered * 3_600_000.0 / endTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("delivered=%d avgWait=%.1f p99Wait=%d maxWait=%d avgRide=%.1f p99Ride=%d floorsTravelled=%d events=%d simulatedTime=%d",
+                passengersDelivered, averageWaitTime(), waitTimes.percentile(99), maxWaitTime, averageRideTime(),
+                rideTimes.percentile(99), floorsTravelled, eventsProcessed, endTime);
+    }
+}
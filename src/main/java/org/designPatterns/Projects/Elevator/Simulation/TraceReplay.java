@@ -0,0 +1,80 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Components.Floor;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Traffic.TraceReader;
+import org.designPatterns.Projects.Elevator.Traffic.TraceWriter;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficGenerator;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficPattern;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+Replays a binary trip trace against every dispatcher on the same building and prints throughput and latency KPIs.
+The trace is streamed from disk into the simulation, so memory stays flat however many trips it holds.
+
+Usage: TraceReplay [trace] [building spec]
+    Without a trace (or with "-"), an up-peak hour is generated into a temporary file first. Generator settings can be changed with
+    -Dtraffic.pattern=UP_PEAK|DOWN_PEAK|LUNCH|INTER_FLOOR, -Dtraffic.rate=<passengers per minute>, -Dtraffic.hours=<n>.
+*/
+public class TraceReplay {
+    public static void main(String[] args) throws IOException {
+        Path spec = args.length > 1 ? Path.of(args[1]) : null;
+        Building layout = loadBuilding(spec);
+
+        Path trace;
+        if (args.length > 0 && !args[0].equals("-")) {
+            trace = Path.of(args[0]);
+        } else {
+            trace = Files.createTempFile("elevator", ".trace");
+            trace.toFile().deleteOnExit();
+            generate(trace, layout);
+        }
+        System.out.println("Replaying " + trace + " (" + Files.size(trace) + " bytes) on " + layout.name);
+
+        for (String dispatcher : BuildingLoader.DISPATCHERS.keySet()) {
+            Building building = loadBuilding(spec);
+            building.useDispatcher(BuildingLoader.DISPATCHERS.get(dispatcher).apply(building.registry));
+            replay(dispatcher, building, trace);
+        }
+    }
+
+    static Building loadBuilding(Path spec) throws IOException {
+        return spec != null ? BuildingLoader.load(spec) : BuildingLoader.loadResource("buildings/tower.building");
+    }
+
+    static void generate(Path trace, Building building) throws IOException {
+        TrafficPattern pattern = TrafficPattern.valueOf(System.getProperty("traffic.pattern", "UP_PEAK"));
+        double rate = Double.parseDouble(System.getProperty("traffic.rate", "20"));
+        double hours = Double.parseDouble(System.getProperty("traffic.hours", "1"));
+
+        int lobby = Integer.MAX_VALUE;
+        for (Floor floor : building.getAllFloorList()) {
+            lobby = Math.min(lobby, floor.floorNumber);
+        }
+        TrafficGenerator generator = new TrafficGenerator(pattern, lobby, building.topFloor(), rate,
+                Math.round(hours * 3_600_000), 11);
+        try (TraceWriter writer = new TraceWriter(trace)) {
+            long trips = writer.writeAll(generator);
+            System.out.println("Generated " + trips + " " + pattern + " trips at " + rate + "/min over " + hours + " h");
+        }
+    }
+
+    static void replay(String name, Building building, Path trace) throws IOException {
+        long start = System.nanoTime();
+        SimulationStats stats;
+        try (TraceReader reader = new TraceReader(trace)) {
+            SimulationEngine engine = new SimulationEngine(building);
+            engine.feed(reader);
+            stats = engine.run();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%-10s delivered=%d throughput=%.0f/h avgWait=%.1fs p99Wait=%.1fs avgRide=%.1fs p99Ride=%.1fs (%d ms)%n",
+                name, stats.passengersDelivered, stats.throughputPerHour(),
+                stats.averageWaitTime() / 1000, stats.waitTimes.percentile(99) / 1000.0,
+                stats.averageRideTime() / 1000, stats.rideTimes.percentile(99) / 1000.0, elapsedMillis);
+    }
+}
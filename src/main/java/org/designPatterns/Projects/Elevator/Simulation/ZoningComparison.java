@@ -0,0 +1,78 @@
+package org.designPatterns.Projects.Elevator.Simulation;
+
+import org.designPatterns.Projects.Elevator.Algorithm.ExternalDispatcher;
+import org.designPatterns.Projects.Elevator.Algorithm.ZonedDispatcher;
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficGenerator;
+import org.designPatterns.Projects.Elevator.Traffic.TrafficPattern;
+import org.designPatterns.Projects.Elevator.Traffic.Trip;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+A 100-storey tower with the same fourteen cars run three ways:
+    unzoned   every car stops at every floor, ETA dispatch
+    banks     low-rise, express mid-rise and high-rise banks with a sky lobby on 51, ETA dispatch
+    zoned     the same banks with ZonedDispatcher
+High-rise passengers take a shuttle from the lobby to the sky lobby and change cars there. The mid-rise cars also
+stop at the top four low-rise floors, so a saturated low-rise bank has somewhere to turn.
+Round trip is the time between a car's departures from the lobby; journey is hall to final floor, transfers included.
+Usage: ZoningComparison [passengers per minute] [minutes]
+*/
+public class ZoningComparison {
+    static final String BANKS = """
+            floors 0 99
+            zone low 0 25
+            zone mid 26 50
+            zone high 51 99
+            cars 4 zone=low speed=2.5 start=0
+            cars 4 zone=mid serves=0,22-50 speed=4 start=0
+            cars 2 zone=high serves=0,51 speed=7 start=0
+            cars 4 zone=high serves=51-99 speed=4 start=51
+            """;
+
+    static final String UNZONED = """
+            floors 0 99
+            cars 4 speed=2.5 start=0
+            cars 4 speed=4 start=0
+            cars 2 speed=7 start=0
+            cars 4 speed=4 start=51
+            """;
+
+    public static void main(String[] args) {
+        double rate = args.length > 0 ? Double.parseDouble(args[0]) : 20;
+        double minutes = args.length > 1 ? Double.parseDouble(args[1]) : 60;
+
+        System.out.println("100 floors, 14 cars, " + rate + " passengers/min for " + minutes + " minutes");
+        for (TrafficPattern pattern : TrafficPattern.values()) {
+            List<Trip> trips = new ArrayList<>();
+            TrafficGenerator generator = new TrafficGenerator(pattern, 0, 99, rate, Math.round(minutes * 60_000), 23);
+            for (Trip trip = new Trip(); generator.next(trip); trip = new Trip()) {
+                trips.add(trip);
+            }
+            run(pattern + " unzoned", "dispatcher eta\n" + UNZONED, trips);
+            run(pattern + " banks", "dispatcher eta\n" + BANKS, trips);
+            run(pattern + " zoned", "dispatcher zoned\n" + BANKS, trips);
+        }
+    }
+
+    static void run(String name, String spec, List<Trip> trips) {
+        long fallbacks = 0;
+        Building building = BuildingLoader.fromString(spec);
+        SimulationEngine engine = new SimulationEngine(building);
+        for (Trip trip : trips) {
+            engine.schedulePassenger(trip.time, trip.origin, trip.destination);
+        }
+        SimulationStats stats = engine.run();
+        ExternalDispatcher dispatcher = building.externalDispatcher;
+        if (dispatcher instanceof ZonedDispatcher zoned) {
+            fallbacks = zoned.fallbacks.get();
+        }
+        System.out.printf("%-22s roundTrip=%.1fs avgWait=%.1fs avgJourney=%.1fs p99Wait=%.1fs delivered=%d transfers=%d fallbacks=%d floorsTravelled=%d%n",
+                name, stats.roundTrips.mean() / 1000, stats.averageWaitTime() / 1000, stats.averageJourneyTime() / 1000,
+                stats.waitTimes.percentile(99) / 1000.0, stats.passengersDelivered, stats.transfers, fallbacks,
+                stats.floorsTravelled);
+    }
+}
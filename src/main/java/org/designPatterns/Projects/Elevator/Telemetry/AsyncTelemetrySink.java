@@ -0,0 +1,129 @@
+package org.designPatterns.Projects.Elevator.Telemetry;
+
+import org.designPatterns.Projects.Elevator.Concurrency.MpscLongQueue;
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/*
+Telemetry sink that keeps I/O off the elevator threads.
+Each event is packed into one long and published to a lock-free ring buffer; a background writer thread drains the
+ring in batches, formats the events and writes them out. Publishing never blocks: if the ring is full the event is
+dropped and counted.
+*/
+public class AsyncTelemetrySink implements TelemetrySink {
+    private static final TelemetryEventType[] TYPES = TelemetryEventType.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final MpscLongQueue ring;
+    private final Writer writer;
+    private final boolean closeOutput;
+    private final Thread writerThread;
+    private final StringBuilder batch = new StringBuilder(8192);
+    private final LongConsumer formatter = this::format;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile boolean running = true;
+
+    public AsyncTelemetrySink(OutputStream output, int capacity, boolean closeOutput) {
+        this.ring = new MpscLongQueue(capacity);
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+        this.closeOutput = closeOutput;
+        this.writerThread = new Thread(this::writeLoop, "elevator-telemetry");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public static AsyncTelemetrySink toStdout() {
+        return new AsyncTelemetrySink(System.out, 1 << 16, false);
+    }
+
+    public static AsyncTelemetrySink toFile(Path path) throws IOException {
+        return new AsyncTelemetrySink(new FileOutputStream(path.toFile()), 1 << 16, true);
+    }
+
+    @Override
+    public void publish(TelemetryEventType type, int carId, int floor, Direction direction) {
+        long event = ((long) type.ordinal() << 56)
+                | ((long) (carId & 0xFFFF) << 40)
+                | ((long) (direction == null ? 0 : direction.ordinal() + 1) << 32)
+                | (floor & 0xFFFFFFFFL);
+        if (!ring.offer(event)) {
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    public long droppedEvents() {
+        return droppedEvents.get();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (drainBatch() == 0) {
+                LockSupport.parkNanos(1_000_000);
+            }
+        }
+        // Publishers are done: write whatever is left
+        while (drainBatch() > 0) {
+            // Keep draining until the ring is empty
+        }
+    }
+
+    private int drainBatch() {
+        int drained = ring.drain(formatter, 4096);
+        if (drained > 0) {
+            try {
+                writer.append(batch);
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                batch.setLength(0);
+            }
+        }
+        return drained;
+    }
+
+    private void format(long event) {
+        int direction = (int) (event >>> 32) & 0xFF;
+        batch.append(TYPES[(int) (event >>> 56)])
+                .append(" car=").append((int) (event >>> 40) & 0xFFFF)
+                .append(" floor=").append((int) event);
+        if (direction != 0) {
+            batch.append(" dir=").append(DIRECTIONS[direction - 1]);
+        }
+        batch.append('\n');
+    }
+
+    // Stops the writer after it has flushed everything published so far
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+            if (closeOutput) {
+                writer.close();
+            } else {
+                writer.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (droppedEvents.get() > 0) {
+            System.err.println("Telemetry dropped " + droppedEvents.get() + " events");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.designPatterns.Projects.Elevator.Telemetry;
+
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+public class NoOpTelemetrySink implements TelemetrySink {
+    public static final NoOpTelemetrySink INSTANCE = new NoOpTelemetrySink();
+
+    private NoOpTelemetrySink() {
+    }
+
+    @Override
+    public void publish(TelemetryEventType type, int carId, int floor, Direction direction) {
+        // Telemetry is off: nothing to record
+    }
+}
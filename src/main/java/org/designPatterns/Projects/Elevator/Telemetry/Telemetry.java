@@ -0,0 +1,30 @@
+package org.designPatterns.Projects.Elevator.Telemetry;
+
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+/*
+Process-wide telemetry entry point for the elevator components.
+The sink defaults to a no-op so publishing costs nothing until someone installs a real sink. It is swapped through
+install and uninstall and read through a volatile field, so cars already running on other threads pick up the new sink.
+*/
+public class Telemetry {
+    private static volatile TelemetrySink sink = NoOpTelemetrySink.INSTANCE;
+
+    private Telemetry() {
+    }
+
+    public static void publish(TelemetryEventType type, int carId, int floor, Direction direction) {
+        sink.publish(type, carId, floor, direction);
+    }
+
+    public static synchronized void install(TelemetrySink newSink) {
+        sink = newSink;
+    }
+
+    // Restores the no-op sink and closes the one that was installed
+    public static synchronized void uninstall() {
+        TelemetrySink previous = sink;
+        sink = NoOpTelemetrySink.INSTANCE;
+        previous.close();
+    }
+}
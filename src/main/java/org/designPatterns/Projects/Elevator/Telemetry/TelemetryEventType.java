@@ -0,0 +1,6 @@
+package org.designPatterns.Projects.Elevator.Telemetry;
+
+public enum TelemetryEventType {
+    HALL_CALL, CAR_CALL, CALL_ALLOCATED, STOP_ADDED, REQUEST_STAGED, STAGED_MERGED,
+    DEPARTED, ARRIVED, DOOR_OPENED, DOOR_CLOSED, IDLE, CAR_CALL_REJECTED;
+}
@@ -0,0 +1,11 @@
+package org.designPatterns.Projects.Elevator.Telemetry;
+
+import org.designPatterns.Projects.Elevator.State.Direction;
+
+public interface TelemetrySink extends AutoCloseable {
+    void publish(TelemetryEventType type, int carId, int floor, Direction direction);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,60 @@
+package org.designPatterns.Projects.Elevator.Telemetry;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Simulation.SimulationEngine;
+import org.designPatterns.Projects.Elevator.Simulation.SimulationStats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/*
+Measures simulated passenger trips per second of wall time with telemetry off (the default no-op sink)
+and with the asynchronous sink writing every event to a file.
+*/
+public class TelemetryThroughput {
+    public static void main(String[] args) throws IOException {
+        int passengers = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path file = Files.createTempFile("elevator-telemetry", ".log");
+
+        for (int round = 0; round < 3; round++) {
+            report("no-op sink", passengers, runSimulation(passengers));
+
+            AsyncTelemetrySink sink = AsyncTelemetrySink.toFile(file);
+            Telemetry.install(sink);
+            long nanos = runSimulation(passengers);
+            Telemetry.uninstall();
+            report("async file sink", passengers, nanos);
+            System.out.println("    " + Files.size(file) / 1024 + " KB written, " + sink.droppedEvents() + " events dropped");
+        }
+        Files.delete(file);
+    }
+
+    static long runSimulation(int passengers) {
+        Building building = BuildingLoader.fromString("floors 0 30\ndispatcher eta\ncars 8\n");
+        SimulationEngine engine = new SimulationEngine(building);
+        Random random = new Random(11);
+        long time = 0;
+        for (int i = 0; i < passengers; i++) {
+            time += random.nextInt(4_000);
+            int origin = random.nextInt(31);
+            int destination = (origin + 1 + random.nextInt(30)) % 31;
+            engine.schedulePassenger(time, origin, destination);
+        }
+
+        long start = System.nanoTime();
+        SimulationStats stats = engine.run();
+        long elapsed = System.nanoTime() - start;
+        if (stats.passengersDelivered != passengers) {
+            throw new IllegalStateException("Only " + stats.passengersDelivered + " of " + passengers + " delivered");
+        }
+        return elapsed;
+    }
+
+    static void report(String name, int passengers, long nanos) {
+        System.out.printf("%-16s %,d trips in %d ms = %,.0f trips/s%n", name, passengers, nanos / 1_000_000,
+                passengers * 1e9 / nanos);
+    }
+}
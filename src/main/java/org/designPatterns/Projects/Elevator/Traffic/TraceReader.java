@@ -0,0 +1,47 @@
+package org.designPatterns.Projects.Elevator.Traffic;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Streams trips back from a trace written by TraceWriter, one record at a time
+public class TraceReader implements TripSource, AutoCloseable {
+    private final DataInputStream input;
+    private long time;
+
+    public TraceReader(Path path) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+        int magic = input.readInt();
+        short version = input.readShort();
+        if (magic != TraceWriter.MAGIC || version != TraceWriter.VERSION) {
+            input.close();
+            throw new IOException(path + " is not a version " + TraceWriter.VERSION + " elevator trace");
+        }
+    }
+
+    @Override
+    public boolean next(Trip trip) {
+        try {
+            int gap;
+            try {
+                gap = input.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            time += gap;
+            trip.set(time, input.readShort(), input.readShort());
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,62 @@
+package org.designPatterns.Projects.Elevator.Traffic;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+Writes trips in the compact binary trace format:
+    header  int magic 'ELVT', short version
+    record  int milliseconds since the previous trip, short origin, short destination   (8 bytes)
+Records are streamed straight to disk, so a trace of any length can be written without holding it in memory.
+*/
+public class TraceWriter implements AutoCloseable {
+    static final int MAGIC = 0x454C5654;
+    static final short VERSION = 1;
+
+    private final DataOutputStream output;
+    private long previousTime;
+    private long trips;
+
+    public TraceWriter(Path path) throws IOException {
+        output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+    }
+
+    public void write(Trip trip) throws IOException {
+        long gap = trip.time - previousTime;
+        if (gap < 0 || gap > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Trips must be in time order, got " + trip.time + " after " + previousTime);
+        }
+        if (trip.origin < 0 || trip.origin > Short.MAX_VALUE || trip.destination < 0 || trip.destination > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Floor out of range for the trace format: " + trip.origin + " -> " + trip.destination);
+        }
+        output.writeInt((int) gap);
+        output.writeShort(trip.origin);
+        output.writeShort(trip.destination);
+        previousTime = trip.time;
+        trips++;
+    }
+
+    // Drains a whole source into the trace and returns how many trips were written
+    public long writeAll(TripSource source) throws IOException {
+        Trip trip = new Trip();
+        long before = trips;
+        while (source.next(trip)) {
+            write(trip);
+        }
+        return trips - before;
+    }
+
+    public long trips() {
+        return trips;
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,89 @@
+package org.designPatterns.Projects.Elevator.Traffic;
+
+import java.util.Random;
+
+/*
+Generates passenger trips for one of the classic traffic patterns with Poisson arrivals: the gap between two
+passengers is exponentially distributed around the requested mean rate. The lowest floor is the lobby.
+    UP_PEAK      morning: most trips start at the lobby
+    DOWN_PEAK    evening: most trips end at the lobby
+    LUNCH        trips to and from the lobby in equal measure
+    INTER_FLOOR  uniform trips between any two floors
+*/
+public class TrafficGenerator implements TripSource {
+    final TrafficPattern pattern;
+    final int lobby;
+    final int topFloor;
+    final double meanGapMillis;
+    final long endTime;
+    final Random random;
+    long time;
+
+    public TrafficGenerator(TrafficPattern pattern, int lobby, int topFloor, double passengersPerMinute,
+                            long durationMillis, long seed) {
+        if (topFloor <= lobby) {
+            throw new IllegalArgumentException("Need at least two floors, got " + lobby + "-" + topFloor);
+        }
+        if (passengersPerMinute <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive: " + passengersPerMinute);
+        }
+        this.pattern = pattern;
+        this.lobby = lobby;
+        this.topFloor = topFloor;
+        this.meanGapMillis = 60_000 / passengersPerMinute;
+        this.endTime = durationMillis;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public boolean next(Trip trip) {
+        time += Math.round(-Math.log(1 - random.nextDouble()) * meanGapMillis);
+        if (time > endTime) {
+            return false;
+        }
+
+        double roll = random.nextDouble();
+        switch (pattern) {
+            case UP_PEAK -> {
+                if (roll < 0.85) {
+                    trip.set(time, lobby, upperFloor());
+                } else if (roll < 0.95) {
+                    interFloor(trip);
+                } else {
+                    trip.set(time, upperFloor(), lobby);
+                }
+            }
+            case DOWN_PEAK -> {
+                if (roll < 0.85) {
+                    trip.set(time, upperFloor(), lobby);
+                } else if (roll < 0.95) {
+                    interFloor(trip);
+                } else {
+                    trip.set(time, lobby, upperFloor());
+                }
+            }
+            case LUNCH -> {
+                if (roll < 0.45) {
+                    trip.set(time, upperFloor(), lobby);
+                } else if (roll < 0.9) {
+                    trip.set(time, lobby, upperFloor());
+                } else {
+                    interFloor(trip);
+                }
+            }
+            case INTER_FLOOR -> interFloor(trip);
+        }
+        return true;
+    }
+
+    int upperFloor() {
+        return lobby + 1 + random.nextInt(topFloor - lobby);
+    }
+
+    void interFloor(Trip trip) {
+        int floors = topFloor - lobby + 1;
+        int origin = lobby + random.nextInt(floors);
+        int destination = lobby + (origin - lobby + 1 + random.nextInt(floors - 1)) % floors;
+        trip.set(time, origin, destination);
+    }
+}
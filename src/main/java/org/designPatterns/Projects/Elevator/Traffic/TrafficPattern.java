@@ -0,0 +1,5 @@
+package org.designPatterns.Projects.Elevator.Traffic;
+
+public enum TrafficPattern {
+    UP_PEAK, DOWN_PEAK, LUNCH, INTER_FLOOR;
+}
@@ -0,0 +1,14 @@
+package org.designPatterns.Projects.Elevator.Traffic;
+
+// One passenger journey; sources fill a reused instance so streaming a trace does not allocate per trip
+public class Trip {
+    public long time;
+    public int origin;
+    public int destination;
+
+    public void set(long time, int origin, int destination) {
+        this.time = time;
+        this.origin = origin;
+        this.destination = destination;
+    }
+}
@@ -0,0 +1,6 @@
+package org.designPatterns.Projects.Elevator.Traffic;
+
+public interface TripSource {
+    // Fills trip with the next journey in time order, returns false when the source is exhausted
+    boolean next(Trip trip);
+}
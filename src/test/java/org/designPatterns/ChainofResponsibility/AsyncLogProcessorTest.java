@@ -0,0 +1,100 @@
+package org.designPatterns.ChainofResponsibility;
+
+import org.designPatterns.ChainofResponsibility.AsyncLogProcessor.FullPolicy;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.LogProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class AsyncLogProcessorTest {
+
+    // A producer that got past the closed check could claim a slot after the consumer had left, so its message was
+    // neither written nor dropped
+    @Test
+    void everyMessageIsWrittenOrDroppedWhenClosedUnderLoad(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("log.txt");
+        for (int round = 0; round < 50; round++) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                AsyncLogProcessor async = new AsyncLogProcessor(null, channel, 64, FullPolicy.BLOCK);
+                LongAdder logged = new LongAdder();
+                CountDownLatch started = new CountDownLatch(4);
+                Thread[] producers = new Thread[4];
+                for (int i = 0; i < producers.length; i++) {
+                    producers[i] = new Thread(() -> {
+                        started.countDown();
+                        for (int message = 0; message < 2_000; message++) {
+                            async.log(LogProcessor.INFO, "message " + message);
+                            logged.increment();
+                        }
+                    });
+                    producers[i].start();
+                }
+                assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                    started.await();
+                    async.close();
+                    for (Thread producer : producers) {
+                        producer.join();
+                    }
+                });
+                assertEquals(logged.sum(), async.written + async.dropped.sum(), "round " + round);
+                assertEquals(async.written, Files.readAllLines(file).size());
+            }
+        }
+    }
+
+    // The consumer used to die on anything but an IOException and leave producers waiting on a ring nobody drained
+    @Test
+    void failedWriteDropsTheRestAndStopsTakingMessages(@TempDir Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve("log.txt"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            AsyncLogProcessor async = new AsyncLogProcessor(null, channel, 8, FullPolicy.BLOCK);
+            async.log(LogProcessor.ERROR, "before");
+            async.flush();
+            // Every later write fails
+            channel.close();
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                for (int i = 0; i < 100; i++) {
+                    async.log(LogProcessor.ERROR, "after " + i);
+                }
+                async.close();
+            });
+            assertEquals(1, async.written);
+            assertEquals(100, async.dropped.sum());
+        }
+    }
+
+    // A null message used to make the encoder throw, which stopped the consumer and dropped every line after it
+    @Test
+    void nullMessageIsWrittenAndLoggingContinues(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("log.txt");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            AsyncLogProcessor async = new AsyncLogProcessor(null, channel, 8, FullPolicy.BLOCK);
+            async.log(LogProcessor.ERROR, "before");
+            async.log(LogProcessor.ERROR, null);
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                for (int i = 0; i < 100; i++) {
+                    async.log(LogProcessor.ERROR, "after " + i);
+                }
+                async.close();
+            });
+            assertEquals(102, async.written);
+            assertEquals(0, async.dropped.sum());
+            List<String> lines = Files.readAllLines(file);
+            assertEquals("ERROR: null", lines.get(1));
+            assertEquals("ERROR: after 99", lines.get(101));
+        }
+    }
+}
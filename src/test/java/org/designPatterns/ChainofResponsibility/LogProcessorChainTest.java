@@ -0,0 +1,73 @@
+package org.designPatterns.ChainofResponsibility;
+
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.LogProcessor;
+import org.designPatterns.ChainofResponsibility.ChainOfResponsibilityDesignPattern.LogProcessorChain;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogProcessorChainTest {
+
+    static class Recording extends LogProcessor {
+        final List<String> lines = new ArrayList<>();
+        final boolean fixed;
+        int level;
+        int asked;
+
+        Recording(int level, boolean fixed) {
+            super(null);
+            this.level = level;
+            this.fixed = fixed;
+        }
+
+        @Override
+        protected boolean handles(int logLevel) {
+            asked++;
+            return logLevel == level;
+        }
+
+        @Override
+        protected boolean fixedLevels() {
+            return fixed;
+        }
+
+        @Override
+        protected void write(int logLevel, String message) {
+            lines.add(message);
+        }
+    }
+
+    @Test
+    void processorsWithFixedLevelsAreRoutedByTable() {
+        Recording info = new Recording(LogProcessor.INFO, true);
+        Recording error = new Recording(LogProcessor.ERROR, true);
+        LogProcessorChain chain = new LogProcessorChain();
+        chain.addLast(info);
+        chain.addLast(error);
+        info.asked = 0;
+
+        chain.log(LogProcessor.ERROR, "failed");
+        assertEquals(List.of("failed"), error.lines);
+        // The table went straight past the INFO processor
+        assertEquals(0, info.asked);
+    }
+
+    // A processor that changes its mind after the chain was compiled is still asked, because it never opted in
+    @Test
+    void processorsWithoutFixedLevelsAreAlwaysAsked() {
+        Recording moving = new Recording(LogProcessor.INFO, false);
+        Recording error = new Recording(LogProcessor.ERROR, true);
+        LogProcessorChain chain = new LogProcessorChain();
+        chain.addLast(moving);
+        chain.addLast(error);
+
+        chain.log(LogProcessor.ERROR, "first");
+        moving.level = LogProcessor.ERROR;
+        chain.log(LogProcessor.ERROR, "second");
+        assertEquals(List.of("first"), error.lines);
+        assertEquals(List.of("second"), moving.lines);
+    }
+}
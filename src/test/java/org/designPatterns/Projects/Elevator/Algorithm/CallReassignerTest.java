@@ -0,0 +1,122 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorActor;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CallReassignerTest {
+
+    // One pass used to move up to maxCallsPerPass calls into a car whose inbox nothing drains during the pass; with
+    // requests already waiting there the pass spun forever on the full inbox
+    @Test
+    void passStopsMovingCallsIntoAFullInbox() {
+        Building building = BuildingLoader.fromString("floors 0 299\ncars 2\nreassign 1 gain=0\n");
+        ElevatorController far = building.controllers.get(0);
+        ElevatorController near = building.controllers.get(1);
+        ExternalDispatcher dispatcher = building.externalDispatcher;
+        far.elevatorCar.currentFloor = 299;
+        for (int floor = 1; floor < 280; floor++) {
+            dispatcher.hallCalls.press(floor, Direction.DOWN);
+            dispatcher.hallCalls.assigned(floor, Direction.DOWN, far.elevatorCar.id);
+            far.submitExternalRequest(floor, Direction.DOWN);
+            far.drainInbox();
+        }
+        for (int floor = 2; floor < 22; floor++) {
+            near.submitInternalRequest(floor, Direction.UP);
+        }
+
+        int moved = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> dispatcher.reassigner.reassignPass());
+        assertTrue(moved > 0 && moved <= 256 - 20, "moved " + moved);
+
+        // Once the cars have caught up, the next passes carry on
+        near.drainInbox();
+        far.drainInbox();
+        while (dispatcher.reassigner.reassignPass() > 0) {
+            near.drainInbox();
+            far.drainInbox();
+        }
+
+        // Every lit call is still held by the car the board names
+        for (int floor = 1; floor < 280; floor++) {
+            int owner = dispatcher.hallCalls.owner(floor, Direction.DOWN);
+            ElevatorController holder = owner == far.elevatorCar.id ? far : near;
+            assertEquals(holder.elevatorCar.id, owner);
+            assertTrue(holder.downMaxPQ.contains(floor) || holder.stagedDown.contains(floor), "floor " + floor);
+        }
+    }
+
+    // Cars running as actors, handing calls to each other while the reassigner keeps moving them, are shut down one
+    // by one in the middle of it. Every call is still answered: no actor went to sleep or stopped with a stop pending,
+    // and none was sent a call after it had stopped.
+    @Test
+    void actorsAndReassignerAnswerEveryCall() {
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            for (int round = 0; round < 10; round++) {
+                shutDownWhileCallsMove(round);
+            }
+        });
+    }
+
+    private static void shutDownWhileCallsMove(int round) throws InterruptedException {
+        Building building = BuildingLoader.fromString("floors 0 99\ncars 4\nreassign 1 gain=0\n");
+        ExternalDispatcher dispatcher = building.externalDispatcher;
+        CallReassigner reassigner = dispatcher.reassigner;
+        reassigner.period = 1;
+        ElevatorActor[] actors = new ElevatorActor[building.controllers.size()];
+        for (int i = 0; i < actors.length; i++) {
+            actors[i] = new ElevatorActor(building.controllers.get(i)).start();
+        }
+        reassigner.start();
+
+        // One car at a time is full, so calls are also handed off between the cars while the reassigner moves them
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread loads = new Thread(() -> {
+            for (int full = 0; running.get(); full = (full + 1) % actors.length) {
+                for (int i = 0; i < actors.length; i++) {
+                    actors[i].controller.elevatorCar.load = i == full ? actors[i].controller.elevatorCar.capacity : 0;
+                }
+                Thread.onSpinWait();
+            }
+        });
+        loads.start();
+
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            long seed = round * producers.length + i;
+            producers[i] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int call = 0; call < 5_000; call++) {
+                    building.floor(1 + random.nextInt(98)).pressButton(random.nextBoolean() ? Direction.UP : Direction.DOWN);
+                }
+            });
+            producers[i].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        for (ElevatorActor actor : actors) {
+            actor.shutdown();
+            actor.join();
+        }
+        running.set(false);
+        loads.join();
+        reassigner.shutdown();
+
+        for (ElevatorController controller : building.controllers) {
+            assertFalse(controller.hasPendingRequests(), "car " + controller.elevatorCar.id + " in round " + round);
+        }
+        assertEquals(0, dispatcher.hallCalls.litCount(), "round " + round);
+    }
+}
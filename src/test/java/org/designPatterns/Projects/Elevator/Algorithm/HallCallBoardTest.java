@@ -0,0 +1,68 @@
+package org.designPatterns.Projects.Elevator.Algorithm;
+
+import org.designPatterns.Projects.Elevator.Controller.ControllerRegistry;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HallCallBoardTest {
+
+    // A clear made while the board was being copied into bigger arrays used to be lost, leaving the button lit and
+    // swallowing every later press on it
+    @Test
+    void changesRacingWithAResizeAreKept() throws InterruptedException {
+        for (int round = 0; round < 2_000; round++) {
+            HallCallBoard board = new HallCallBoard(32);
+            CountDownLatch start = new CountDownLatch(1);
+            Thread grower = new Thread(() -> {
+                await(start);
+                for (int floors = 64; floors <= 8_192; floors <<= 1) {
+                    board.resize(floors);
+                    board.press(floors - 1, Direction.UP);
+                }
+            });
+            grower.start();
+            start.countDown();
+            for (int call = 0; call < 200; call++) {
+                assertTrue(board.press(5, Direction.DOWN), "press swallowed in round " + round);
+                board.assigned(5, Direction.DOWN, 1);
+                assertTrue(board.reassigned(5, Direction.DOWN, 1, 2));
+                board.answered(5, Direction.DOWN);
+            }
+            grower.join();
+            assertFalse(board.isLit(5, Direction.DOWN));
+            assertEquals(HallCallBoard.NONE, board.owner(5, Direction.DOWN));
+            assertEquals(8, board.litCount());
+        }
+    }
+
+    @Test
+    void boardCoversFloorsTheRegistryAddsLater() {
+        ControllerRegistry registry = new ControllerRegistry();
+        registry.addFloor(0);
+        HallCallBoard board = new EtaDispatcher(registry).hallCalls;
+        assertFalse(board.press(500, Direction.DOWN));
+
+        registry.addFloor(500);
+        assertTrue(board.press(500, Direction.DOWN));
+        board.assigned(500, Direction.DOWN, 4);
+        board.press(3, Direction.UP);
+        board.clear();
+        assertEquals(0, board.litCount());
+        assertEquals(HallCallBoard.NONE, board.owner(500, Direction.DOWN));
+        assertTrue(board.press(3, Direction.UP));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.designPatterns.Projects.Elevator.Components;
+
+import org.designPatterns.Projects.Elevator.Algorithm.HallCallBoard;
+import org.designPatterns.Projects.Elevator.Controller.BuildingLoader;
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BuildingTest {
+
+    // The hall calls of a car taken out of service used to be dropped with their buttons still lit, which swallowed
+    // every later press on them
+    @Test
+    void removedCarsHallCallsGoToTheCarsLeft() {
+        Building building = BuildingLoader.fromString("floors 0 9\ncars 2\ndispatcher eta\n");
+        ElevatorController removed = building.controllers.get(0);
+        ElevatorController left = building.controllers.get(1);
+        removed.elevatorCar.currentFloor = 6;
+        left.elevatorCar.currentFloor = 0;
+        HallCallBoard board = building.externalDispatcher.hallCalls;
+
+        building.floor(5).pressButton(Direction.DOWN);
+        assertEquals(removed.elevatorCar.id, board.owner(5, Direction.DOWN));
+        // A rider's floor the car was not given as a hall call stays with the car
+        removed.submitInternalRequest(2, Direction.DOWN);
+
+        assertSame(removed, building.removeController(removed.elevatorCar.id));
+        left.drainInbox();
+        assertTrue(left.downMaxPQ.contains(5));
+        assertFalse(left.downMaxPQ.contains(2));
+        assertTrue(board.isLit(5, Direction.DOWN));
+        assertEquals(left.elevatorCar.id, board.owner(5, Direction.DOWN));
+    }
+
+    // A zone reaching past the building's floors used to load without complaint when no car referred to it
+    @Test
+    void zoneOutsideTheBuildingIsRejectedWithItsLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BuildingLoader.fromString(
+                "zone low 0 5\nzone high 6 12\nfloors 0 9\ncar 1 zone=low\n"));
+        assertEquals("<spec>:2: Zone high covers floors 6-12 outside the building's 0-9", e.getMessage());
+    }
+}
@@ -0,0 +1,70 @@
+package org.designPatterns.Projects.Elevator.Concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscLongQueueTest {
+    static final int PRODUCERS = 8;
+    static final int PER_PRODUCER = 200_000;
+
+    // Many producers racing for a small queue: every value arrives exactly once, each producer's in the order sent
+    @Test
+    void everyValueArrivesOnceAndInOrderPerProducer() {
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            MpscLongQueue queue = new MpscLongQueue(64);
+            Thread[] producers = new Thread[PRODUCERS];
+            for (int p = 0; p < PRODUCERS; p++) {
+                long producer = p;
+                producers[p] = new Thread(() -> {
+                    for (long sequence = 0; sequence < PER_PRODUCER; sequence++) {
+                        while (!queue.offer(producer << 32 | sequence)) {
+                            // Yield rather than spin, so the consumer still gets a core on a small machine
+                            Thread.yield();
+                        }
+                    }
+                });
+                producers[p].start();
+            }
+
+            long[] next = new long[PRODUCERS];
+            long[] received = new long[1];
+            while (received[0] < (long) PRODUCERS * PER_PRODUCER) {
+                int drained = queue.drain(value -> {
+                    int producer = (int) (value >>> 32);
+                    assertEquals(next[producer], value & 0xFFFFFFFFL, "producer " + producer);
+                    next[producer]++;
+                    received[0]++;
+                }, queue.capacity());
+                if (drained == 0) {
+                    Thread.yield();
+                }
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            for (long count : next) {
+                assertEquals(PER_PRODUCER, count);
+            }
+            assertTrue(queue.isEmpty());
+            assertEquals(0, queue.size());
+        });
+    }
+
+    @Test
+    void fullQueueRefusesUntilDrained() {
+        MpscLongQueue queue = new MpscLongQueue(4);
+        for (int i = 0; i < queue.capacity(); i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(99));
+        assertEquals(1, queue.drain(value -> assertEquals(0, value), 1));
+        assertTrue(queue.offer(99));
+        assertEquals(queue.capacity(), queue.size());
+    }
+}
@@ -0,0 +1,47 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Taking requests and serving stops must not allocate, also on floors the car has not stopped at before
+class AllocationTest {
+    static final int FLOORS = 300;
+
+    @Test
+    void servingStopsDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Building building = BuildingLoader.fromString("floors 0 " + (FLOORS - 1) + "\ncars 1\n");
+        ElevatorController controller = building.controllers.get(0);
+        // Warm up on the low floors only, so every set would still have to grow for the high ones
+        cycle(controller, 1, 60);
+        cycle(controller, 1, 60);
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        cycle(controller, 1, FLOORS);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertEquals(0, allocated, "bytes allocated");
+    }
+
+    private static void cycle(ElevatorController controller, int low, int high) {
+        for (int floor = low; floor + 2 < high; floor += 3) {
+            controller.submitExternalRequest(floor, Direction.UP);
+            controller.submitExternalRequest(floor + 1, Direction.DOWN);
+            controller.submitInternalRequest(floor + 2, Direction.UP);
+            controller.drainInbox();
+        }
+        for (int stop = controller.pollNextStop(); stop != -1; stop = controller.pollNextStop()) {
+            controller.elevatorCar.currentFloor = stop;
+            controller.arrivedAt(stop);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+import org.designPatterns.Projects.Elevator.Algorithm.ExternalDispatcher;
+import org.designPatterns.Projects.Elevator.Algorithm.HallCallBoard;
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrivalTest {
+
+    @Test
+    void carOnlyAnswersTheCallsItWasGiven() {
+        Building building = BuildingLoader.fromString("floors 0 9\ncars 2\ndispatcher eta\n");
+        ElevatorController first = building.controllers.get(0);
+        ElevatorController second = building.controllers.get(1);
+        HallCallBoard board = building.externalDispatcher.hallCalls;
+        board.press(5, Direction.DOWN);
+        board.assigned(5, Direction.DOWN, first.elevatorCar.id);
+        first.submitExternalRequest(5, Direction.DOWN);
+
+        // Another car stopping there for a rider leaves the call lit
+        second.arrivedAt(5);
+        assertTrue(board.isLit(5, Direction.DOWN));
+        assertEquals(first.elevatorCar.id, board.owner(5, Direction.DOWN));
+
+        // The car it was given to still has it pending while it stops there going up
+        board.press(5, Direction.UP);
+        board.assigned(5, Direction.UP, first.elevatorCar.id);
+        first.submitExternalRequest(5, Direction.UP);
+        first.drainInbox();
+        first.upMinPQ.remove(5);
+        first.arrivedAt(5);
+        assertFalse(board.isLit(5, Direction.UP));
+        assertTrue(board.isLit(5, Direction.DOWN));
+
+        first.downMaxPQ.remove(5);
+        first.arrivedAt(5);
+        assertFalse(board.isLit(5, Direction.DOWN));
+        assertEquals(HallCallBoard.NONE, board.owner(5, Direction.DOWN));
+    }
+
+    @Test
+    void callGivenToSeveralCarsIsAnsweredByAnyOfThem() {
+        Building building = BuildingLoader.fromString("floors 0 9\ncars 2\ndispatcher broadcast\n");
+        HallCallBoard board = building.externalDispatcher.hallCalls;
+        building.externalDispatcher.submitExternalRequest(3, Direction.UP);
+        assertEquals(HallCallBoard.SHARED, board.owner(3, Direction.UP));
+
+        ElevatorController second = building.controllers.get(1);
+        second.drainInbox();
+        second.upMinPQ.remove(3);
+        second.arrivedAt(3);
+        assertFalse(board.isLit(3, Direction.UP));
+    }
+
+    // A running car can answer a call the moment it is sent one; the call used to be recorded as the car's only after
+    // it was sent, so an answer in between was ignored and the button stayed lit with no car coming. Several buildings
+    // run at once so the pressing threads get preempted and the cars can get in between.
+    @Test
+    void runningCarAnswersEveryCallTheDispatcherGivesIt() {
+        assertTimeoutPreemptively(Duration.ofSeconds(120), () -> {
+            AtomicInteger lit = new AtomicInteger();
+            Thread[] buildings = new Thread[8];
+            for (int i = 0; i < buildings.length; i++) {
+                buildings[i] = new Thread(() -> {
+                    for (int run = 0; run < 1000; run++) {
+                        Building building = BuildingLoader.fromString("floors 0 9\ncars 1\ndispatcher eta\n");
+                        ExternalDispatcher dispatcher = building.externalDispatcher;
+                        ElevatorActor actor = new ElevatorActor(building.controllers.get(0)).start();
+                        for (int press = 0; press < 50; press++) {
+                            dispatcher.submitExternalRequest(press % 10, press % 3 == 0 ? Direction.DOWN : Direction.UP);
+                        }
+                        actor.shutdown();
+                        try {
+                            actor.join();
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        lit.addAndGet(dispatcher.hallCalls.litCount());
+                    }
+                });
+                buildings[i].start();
+            }
+            for (Thread building : buildings) {
+                building.join();
+            }
+            assertEquals(0, lit.get(), "buttons left lit");
+        });
+    }
+
+    // A press no car can take used to leave the button lit with no owner, so every later press on it was dropped
+    @Test
+    void callNoCarCanTakeLeavesTheButtonDark() {
+        for (String name : BuildingLoader.DISPATCHERS.keySet()) {
+            // An odd floor, so the odd/even dispatcher can give it to car 1 once it is back
+            Building building = BuildingLoader.fromString("floors 0 9\ncars 1\ndispatcher " + name + "\n");
+            ExternalDispatcher dispatcher = building.externalDispatcher;
+            ElevatorController car = building.removeController(building.controllers.get(0).elevatorCar.id);
+            dispatcher.submitExternalRequest(5, Direction.UP);
+            assertFalse(dispatcher.hallCalls.isLit(5, Direction.UP), name);
+
+            // So the next press, once a car is back, is dispatched
+            building.addController(car);
+            dispatcher.submitExternalRequest(5, Direction.UP);
+            car.drainInbox();
+            assertTrue(car.upMinPQ.contains(5), name);
+        }
+    }
+
+    // The zoned dispatcher's bank buttons used to be reused by bank number, so a car joining a lower bank moved every
+    // bank above it onto another bank's buttons and a lit call there was dispatched again
+    @Test
+    void bankKeepsItsButtonsWhenTheBanksAreRenumbered() {
+        Building building = BuildingLoader.fromString("floors 0 19\nzone low 0 9\nzone high 10 19\ndispatcher zoned\n"
+                + "car 1 zone=high\ncar 2 zone=low\n");
+        ElevatorController high = building.controller(1);
+        ElevatorController low = building.removeController(2);
+        building.floor(12).pressButton(15);
+        assertEquals(1, high.drainInbox());
+
+        building.addController(low);
+        building.floor(12).pressButton(15);
+        assertEquals(0, high.drainInbox());
+        assertEquals(0, low.drainInbox());
+    }
+
+    // Bookings used to be released only by the simulation, so a car driven any other way looked booked up for good
+    @Test
+    void answeringABookedCallReleasesItsBookings() {
+        Building building = BuildingLoader.fromString("floors 0 9\ncars 1 capacity=4\ndispatcher destination\n");
+        ElevatorController controller = building.controllers.get(0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(controller.elevatorCar.id, building.externalDispatcher.submitDestinationRequest(4, 8));
+        }
+        building.externalDispatcher.submitDestinationRequest(6, 2);
+        assertEquals(4, controller.elevatorCar.booked.get());
+        assertTrue(controller.elevatorCar.isBookedUp());
+
+        int stop = controller.pollNextStop();
+        assertEquals(4, stop);
+        controller.elevatorCar.arriveAt(stop);
+        controller.arrivedAt(stop);
+        assertEquals(1, controller.elevatorCar.booked.get());
+
+        controller.controlElevator();
+        assertEquals(0, controller.elevatorCar.booked.get());
+    }
+}
@@ -0,0 +1,125 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.designPatterns.Projects.Elevator.Telemetry.Telemetry;
+import org.designPatterns.Projects.Elevator.Telemetry.TelemetryEventType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElevatorControllerTest {
+    static final int PRODUCERS = 8;
+    static final int PER_PRODUCER = 512;
+
+    // Senders outrunning the car: requests spill from the inbox into the overflow while the car drains both, and every
+    // one still arrives once, each sender's in the order sent
+    @Test
+    void overflowedRequestsArriveOnceAndInOrderPerSender() {
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            for (int round = 0; round < 20; round++) {
+                spillAndDrain(round);
+            }
+        });
+    }
+
+    // A sender that found the overflow just emptied put its next request in the inbox, overflowed the one after, and
+    // the car, still emptying the overflow, applied that one first
+    @Test
+    void requestOverflowedWhileTheCarEmptiesTheOverflowWaitsForTheInbox() {
+        Building building = BuildingLoader.fromString("floors 0 1023\ncar 1\n");
+        ElevatorController controller = building.controller(1);
+        int capacity = controller.inbox.capacity();
+        List<Integer> stopsAdded = new ArrayList<>();
+        Telemetry.install((type, carId, floor, direction) -> {
+            if (type != TelemetryEventType.STOP_ADDED) {
+                return;
+            }
+            stopsAdded.add(floor);
+            if (floor == capacity) {
+                // The car has just taken the last overflowed request: a second sender fills the inbox and spills
+                for (int next = 512; next <= 512 + capacity; next++) {
+                    controller.submitInternalRequest(next, Direction.UP);
+                }
+            }
+        });
+        try {
+            for (int floor = 0; floor <= capacity; floor++) {
+                controller.submitInternalRequest(floor, Direction.UP);
+            }
+            assertEquals(1, controller.metrics.getOverflowedRequests());
+            while (controller.drainInbox() > 0) {
+                // Keep draining until both senders' requests are in
+            }
+        } finally {
+            Telemetry.uninstall();
+        }
+
+        assertEquals(2 * (capacity + 1), stopsAdded.size());
+        for (int i = 0; i < stopsAdded.size(); i++) {
+            assertEquals(i <= capacity ? i : 512 + i - capacity - 1, (int) stopsAdded.get(i));
+        }
+    }
+
+    private static void spillAndDrain(int round) throws InterruptedException {
+        int total = PRODUCERS * PER_PRODUCER;
+        Building building = BuildingLoader.fromString("floors 0 " + (total - 1) + "\ncar 1\n");
+        ElevatorController controller = building.controller(1);
+        // Only the draining thread adds stops, so a plain list is enough
+        List<Integer> stopsAdded = new ArrayList<>();
+        Telemetry.install((type, carId, floor, direction) -> {
+            if (type == TelemetryEventType.STOP_ADDED) {
+                stopsAdded.add(floor);
+            }
+        });
+        try {
+            Thread[] producers = new Thread[PRODUCERS];
+            for (int p = 0; p < PRODUCERS; p++) {
+                int first = p * PER_PRODUCER;
+                producers[p] = new Thread(() -> {
+                    for (int floor = first; floor < first + PER_PRODUCER; floor++) {
+                        controller.submitInternalRequest(floor, Direction.UP);
+                    }
+                });
+                producers[p].start();
+            }
+
+            // The car starts draining once the inbox has spilled, so the overflow is in use while it does
+            while (controller.metrics.getOverflowedRequests() == 0) {
+                Thread.yield();
+            }
+            int applied = 0;
+            while (applied < total) {
+                int drained = controller.drainInbox();
+                if (drained == 0) {
+                    Thread.yield();
+                }
+                applied += drained;
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            assertEquals(total, applied);
+            assertEquals(0, controller.drainInbox());
+            assertTrue(controller.inboxEmpty());
+            assertEquals(total, controller.upMinPQ.size());
+            int[] next = new int[PRODUCERS];
+            for (int floor : stopsAdded) {
+                int producer = floor / PER_PRODUCER;
+                assertEquals(producer * PER_PRODUCER + next[producer]++, floor, "producer " + producer + " in round " + round);
+            }
+            for (int p = 0; p < PRODUCERS; p++) {
+                assertEquals(PER_PRODUCER, next[p], "producer " + p + " in round " + round);
+            }
+        } finally {
+            Telemetry.uninstall();
+        }
+    }
+}
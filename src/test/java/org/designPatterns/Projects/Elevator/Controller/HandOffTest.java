@@ -0,0 +1,128 @@
+package org.designPatterns.Projects.Elevator.Controller;
+
+import org.designPatterns.Projects.Elevator.Components.Building;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Full cars hand their hall calls to other cars through the other cars' inboxes; that must never wait for the other
+// car to drain, since it may be waiting on this one, or be driven by the very thread that is handing off
+class HandOffTest {
+    static final int FLOORS = 400;
+
+    @Test
+    void handOffIntoInboxNobodyDrainsCompletes() {
+        Building building = BuildingLoader.fromString("floors 0 " + (FLOORS - 1) + "\ncars 2\n");
+        ElevatorController full = building.controllers.get(0);
+        ElevatorController empty = building.controllers.get(1);
+        // More calls than the other car's inbox holds
+        for (int floor = 1; floor <= 300; floor++) {
+            full.submitExternalRequest(floor, Direction.UP);
+            full.drainInbox();
+        }
+        full.elevatorCar.load = full.elevatorCar.capacity;
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), full::pollNextStop);
+
+        empty.drainInbox();
+        for (int floor = 1; floor <= 300; floor++) {
+            assertTrue(empty.upMinPQ.contains(floor), "call on floor " + floor + " was not handed off");
+        }
+        assertTrue(full.upMinPQ.isEmpty());
+        assertTrue(empty.inboxEmpty());
+    }
+
+    // With nobody to take them, the calls a full car bypasses are staged, ahead of the car as well as behind it; the
+    // car still has somewhere to go, or its actor would sleep with them pending
+    @Test
+    void fullCarWithNobodyToHandOffToStillServesCallsAhead() {
+        Building building = BuildingLoader.fromString("floors 0 " + (FLOORS - 1) + "\ncar 1 start=10\n");
+        ElevatorController full = building.controllers.get(0);
+        full.submitExternalRequest(20, Direction.UP);
+        full.submitExternalRequest(30, Direction.UP);
+        full.elevatorCar.load = full.elevatorCar.capacity;
+
+        assertEquals(20, full.pollNextStop());
+        assertEquals(30, full.pollNextStop());
+        assertEquals(-1, full.pollNextStop());
+    }
+
+    // An actor that has been shut down takes no more calls from other cars, so none is left in an inbox nobody drains
+    @Test
+    void retiredCarRefusesHandOffs() throws InterruptedException {
+        Building building = BuildingLoader.fromString("floors 0 " + (FLOORS - 1) + "\ncars 2\n");
+        ElevatorController retired = building.controllers.get(1);
+        ElevatorActor actor = new ElevatorActor(retired).start();
+        actor.shutdown();
+        actor.join();
+
+        assertFalse(retired.acceptHandOff(5, Direction.UP));
+        assertTrue(retired.inboxEmpty());
+        ElevatorController full = building.controllers.get(0);
+        full.submitExternalRequest(5, Direction.UP);
+        full.elevatorCar.load = full.elevatorCar.capacity;
+        assertEquals(5, full.pollNextStop());
+    }
+
+    @Test
+    void carsHandingOffToEachOtherUnderLoadDoNotDeadlock() {
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            Building building = BuildingLoader.fromString("floors 0 " + (FLOORS - 1) + "\ncars 2\n");
+            ElevatorController first = building.controllers.get(0);
+            ElevatorController second = building.controllers.get(1);
+            ElevatorActor[] actors = {new ElevatorActor(first).start(), new ElevatorActor(second).start()};
+
+            // The cars take turns being full, so each keeps handing its calls to the other
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread loads = new Thread(() -> {
+                boolean firstFull = true;
+                while (running.get()) {
+                    first.elevatorCar.load = firstFull ? first.elevatorCar.capacity : 0;
+                    second.elevatorCar.load = firstFull ? 0 : second.elevatorCar.capacity;
+                    firstFull = !firstFull;
+                    Thread.onSpinWait();
+                }
+            });
+            loads.start();
+
+            Thread[] producers = new Thread[4];
+            for (int i = 0; i < producers.length; i++) {
+                long seed = i;
+                producers[i] = new Thread(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    for (int call = 0; call < 50_000; call++) {
+                        ElevatorController car = random.nextBoolean() ? first : second;
+                        car.submitExternalRequest(1 + random.nextInt(FLOORS - 2), random.nextBoolean() ? Direction.UP : Direction.DOWN);
+                    }
+                });
+                producers[i].start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            running.set(false);
+            loads.join();
+            first.elevatorCar.load = 0;
+            second.elevatorCar.load = 0;
+
+            for (ElevatorActor actor : actors) {
+                actor.shutdown();
+            }
+            for (ElevatorActor actor : actors) {
+                actor.join();
+            }
+            // With nobody full any more, every call that was handed around has been served
+            assertFalse(first.hasPendingRequests());
+            assertFalse(second.hasPendingRequests());
+            assertEquals(0, first.stagedCount() + second.stagedCount());
+        });
+    }
+}
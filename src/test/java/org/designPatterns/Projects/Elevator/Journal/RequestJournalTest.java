@@ -0,0 +1,56 @@
+package org.designPatterns.Projects.Elevator.Journal;
+
+import org.designPatterns.Projects.Elevator.Controller.ElevatorController;
+import org.designPatterns.Projects.Elevator.State.Direction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestJournalTest {
+    static final String SPEC = "floors 0 40\ncars 1\n";
+
+    // A full car moves its hall calls to the staged sets; riders' floors stay car calls. Both have to come back.
+    @Test
+    void recoversStopsOfACarThatBypassedCalls(@TempDir Path directory) throws IOException {
+        ElevatorController before = JournalRecoveryDemo.controller(SPEC);
+        // Small enough to compact several times
+        RequestJournal.open(directory, before, 256);
+        SplittableRandom random = new SplittableRandom(7);
+        int checkedWithCarCalls = 0;
+        for (int i = 0; i < 5_000; i++) {
+            int floor = random.nextInt(41);
+            before.elevatorCar.load = random.nextInt(4) == 0 ? before.elevatorCar.capacity : 0;
+            switch (random.nextInt(3)) {
+                case 0 -> before.submitExternalRequest(floor, random.nextBoolean() ? Direction.UP : Direction.DOWN);
+                case 1 -> before.submitInternalRequest(floor, floor > before.elevatorCar.currentFloor ? Direction.UP : Direction.DOWN);
+                default -> {
+                    int stop = before.pollNextStop();
+                    if (stop != -1) {
+                        before.elevatorCar.arriveAt(stop);
+                        before.arrivedAt(stop);
+                    }
+                }
+            }
+            before.drainInbox();
+
+            if (i % 500 == 499) {
+                assertRecovers(directory, before);
+                checkedWithCarCalls += before.carCalls.isEmpty() ? 0 : 1;
+            }
+        }
+        assertTrue(checkedWithCarCalls > 0);
+    }
+
+    private static void assertRecovers(Path directory, ElevatorController before) throws IOException {
+        ElevatorController after = JournalRecoveryDemo.controller(SPEC);
+        // Opening the live journal a second time reads the same mapped pages the first one writes
+        RequestJournal recovered = RequestJournal.open(directory, after, 256);
+        assertTrue(JournalRecoveryDemo.sameState(before, after));
+        recovered.close();
+    }
+}